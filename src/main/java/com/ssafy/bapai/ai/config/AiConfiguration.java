@@ -1,6 +1,16 @@
 package com.ssafy.bapai.ai.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
 import java.time.Duration;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.chat.model.ChatModel;
 import org.springframework.ai.openai.OpenAiChatModel;
@@ -11,9 +21,14 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
-import org.springframework.http.client.BufferingClientHttpRequestFactory;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.client.RestClient;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 
 @Configuration
 public class AiConfiguration {
@@ -36,30 +51,105 @@ public class AiConfiguration {
     @Value("${APP_AI_REPORT_TEMPERATURE:0.7}")
     private Double reportTemp;
 
+    @Value("${app.ai.http.max-total:100}")
+    private int maxTotal;
+
+    @Value("${app.ai.http.max-per-route:50}")
+    private int maxPerRoute;
+
+    @Value("${app.ai.http.connect-timeout-ms:5000}")
+    private long connectTimeoutMs;
+
+    @Value("${app.ai.http.read-timeout-ms:120000}")
+    private long readTimeoutMs;
+
+    @Value("${app.ai.http.idle-evict-seconds:30}")
+    private long idleEvictSeconds;
+
+    @Value("${app.ai.http.time-to-live-minutes:5}")
+    private long timeToLiveMinutes;
+
+    // ✅ vision/report 가 함께 쓰는 keep-alive 커넥션 풀 (OpenAI 호환 서버는 route 1개)
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager aiConnectionManager(MeterRegistry meterRegistry) {
+        PoolingHttpClientConnectionManager manager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxTotal)
+                .setMaxConnPerRoute(maxPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                        .setSocketTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                        .setTimeToLive(TimeValue.ofMinutes(timeToLiveMinutes))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(10))
+                        .build())
+                .build();
+
+        // httpcomponents_client_pool_{total_max,total_connections,route_max_default,...}{httpclient="openai"}
+        new PoolingHttpClientConnectionManagerMetricsBinder(manager, "openai").bindTo(meterRegistry);
+        return manager;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient aiHttpClient(PoolingHttpClientConnectionManager aiConnectionManager) {
+        return HttpClients.custom()
+                .setConnectionManager(aiConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        // 풀이 가득 차면 무한 대기하지 않고 실패 -> AiCallGuard fallback
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                        .setResponseTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                        .build())
+                .evictIdleConnections(TimeValue.ofSeconds(idleEvictSeconds))
+                .evictExpiredConnections()
+                .disableAutomaticRetries() // 재시도는 Spring AI RetryTemplate 에 맡김
+                .build();
+    }
+
     // 네트워크 무한대기 방지(장애 시 스레드 고갈/지연 방지)
+    // Buffering 래퍼 제거: base64 이미지 본문을 메모리에 한 번 더 복사하지 않고 바로 소켓으로 스트리밍
     @Bean
-    public RestClient.Builder restClientBuilder() {
-        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
-        factory.setConnectTimeout(Duration.ofSeconds(5));
-        factory.setReadTimeout(Duration.ofSeconds(120));
-
+    public RestClient.Builder restClientBuilder(CloseableHttpClient aiHttpClient) {
         return RestClient.builder()
-                .requestFactory(new BufferingClientHttpRequestFactory(factory));
+                .requestFactory(new HttpComponentsClientHttpRequestFactory(aiHttpClient));
+    }
+
+    // ✅ 스트리밍(SSE) 호출용 Reactor Netty 커넥션 풀. HTTPS 이면 ALPN 으로 HTTP/2 협상
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider aiConnectionProvider() {
+        return ConnectionProvider.builder("openai")
+                .maxConnections(maxTotal)
+                .pendingAcquireTimeout(Duration.ofMillis(connectTimeoutMs))
+                .maxIdleTime(Duration.ofSeconds(idleEvictSeconds))
+                .maxLifeTime(Duration.ofMinutes(timeToLiveMinutes))
+                .metrics(true) // reactor_netty_connection_provider_*{name="openai"}
+                .build();
+    }
+
+    private WebClient.Builder aiWebClientBuilder(ConnectionProvider aiConnectionProvider) {
+        HttpClient httpClient = HttpClient.create(aiConnectionProvider)
+                .responseTimeout(Duration.ofMillis(readTimeoutMs));
+        if (openAiUrl.startsWith("https")) {
+            httpClient = httpClient.protocol(HttpProtocol.H2, HttpProtocol.HTTP11).secure();
+        }
+        return WebClient.builder().clientConnector(new ReactorClientHttpConnector(httpClient));
     }
 
     // 1) Vision (이미지 분석/가벼운 추천)
+    // loadtest 프로필에서는 LoadTestAiConfiguration 의 가짜 모델로 대체
     @Bean(name = "visionChatModel")
     @Primary
-    public ChatModel visionChatModel(RestClient.Builder restClientBuilder) {
+    @Profile("!loadtest")
+    public ChatModel visionChatModel(RestClient.Builder restClientBuilder,
+                                     ConnectionProvider aiConnectionProvider) {
         OpenAiApi api = OpenAiApi.builder()
                 .baseUrl(openAiUrl)
                 .apiKey(openAiKey)
-                .restClientBuilder(restClientBuilder)
+                .restClientBuilder(restClientBuilder.clone())
+                .webClientBuilder(aiWebClientBuilder(aiConnectionProvider))
                 .build();
 
         return new OpenAiChatModel(api, OpenAiChatOptions.builder()
                 .model(visionModel)
                 .temperature(visionTemp)
+                .streamUsage(true) // 스트리밍 마지막 청크에 토큰 usage 포함 (AiMetrics)
                 .build());
     }
 
@@ -70,15 +160,19 @@ public class AiConfiguration {
 
     // 2) Report (주간/월간/갭 등 고급 텍스트)
     @Bean(name = "reportChatModel")
-    public ChatModel reportChatModel(RestClient.Builder restClientBuilder) {
+    @Profile("!loadtest")
+    public ChatModel reportChatModel(RestClient.Builder restClientBuilder,
+                                     ConnectionProvider aiConnectionProvider) {
         OpenAiApi api = OpenAiApi.builder()
                 .baseUrl(openAiUrl) // 둘 다 OpenAI 호환 GMS로 통일
                 .apiKey(openAiKey)
-                .restClientBuilder(restClientBuilder)
+                .restClientBuilder(restClientBuilder.clone())
+                .webClientBuilder(aiWebClientBuilder(aiConnectionProvider))
                 .build();
 
         return new OpenAiChatModel(api, OpenAiChatOptions.builder()
                 .model(reportModel) // 기본 gpt-5 (미지원/불안정하면 gpt-4.1로 env 변경)
+                .streamUsage(true)
 
                 .build());
     }
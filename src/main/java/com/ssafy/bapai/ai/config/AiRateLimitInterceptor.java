@@ -0,0 +1,90 @@
+package com.ssafy.bapai.ai.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ssafy.bapai.ai.service.AiRateLimiter;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * AI 호출 경로 사용량 제한 (WebConfig 에서 /api/ai/**, /api/diet-logs 의 AI 경로에 등록)
+ * - 요청 경로 -> 용도(analyze / recommend / challenge / report), 사용자별 버킷은 AiRateLimiter
+ * - 초과 시 429 + Retry-After(초) + {"message": ...}, 허용 시 X-RateLimit-Remaining
+ * - SSE 스트리밍의 ASYNC 재디스패치는 이미 차감했으므로 건너뜀
+ */
+@Component
+@RequiredArgsConstructor
+public class AiRateLimitInterceptor implements HandlerInterceptor {
+
+    private final AiRateLimiter rateLimiter;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response,
+                             Object handler) throws Exception {
+        if (request.getDispatcherType() != DispatcherType.REQUEST) {
+            return true;
+        }
+        String purpose = purposeOf(request);
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (purpose == null || auth == null || !(auth.getPrincipal() instanceof Long userId)) {
+            return true; // 인증 누락은 Security 에서 처리
+        }
+
+        String role = auth.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority).findFirst().orElse(null);
+        AiRateLimiter.Decision decision =
+                rateLimiter.tryAcquire(userId, AiRateLimiter.planOf(role), purpose);
+        if (decision.allowed()) {
+            if (decision.remaining() >= 0) {
+                response.setHeader("X-RateLimit-Remaining", String.valueOf(decision.remaining()));
+            }
+            return true;
+        }
+
+        long retryAfterSeconds = Math.max(1, (decision.retryAfterMs() + 999) / 1000);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setHeader("X-RateLimit-Remaining", "0");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        response.getWriter().write(objectMapper.writeValueAsString(Map.of(
+                "message", "AI 요청이 너무 많습니다. " + retryAfterSeconds + "초 후에 다시 시도해주세요.",
+                "retryAfterSeconds", retryAfterSeconds)));
+        return false;
+    }
+
+    // 등록 경로 중 AI 를 호출하지 않는 요청(리포트 작업 상태 조회 등)은 null
+    private String purposeOf(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+
+        if (path.equals("/api/ai/analyze") || path.equals("/api/diet-logs/analyze")) {
+            return "analyze";
+        }
+        if (path.startsWith("/api/ai/recommend")) {
+            return "recommend";
+        }
+        if (path.startsWith("/api/ai/challenges/")) {
+            return "challenge";
+        }
+        if (path.startsWith("/api/ai/report/jobs/")) {
+            return null;
+        }
+        if (path.startsWith("/api/ai/report/")
+                || path.startsWith("/api/diet-logs/daily/")
+                || path.equals("/api/diet-logs/stats/period")) {
+            return "report";
+        }
+        return null;
+    }
+}
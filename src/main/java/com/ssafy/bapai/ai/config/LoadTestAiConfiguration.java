@@ -0,0 +1,35 @@
+package com.ssafy.bapai.ai.config;
+
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * 부하 테스트 프로필 (--spring.profiles.active=loadtest)
+ * - AiConfiguration 의 visionChatModel / reportChatModel 을 LoadTestChatModel 로 대체
+ * - ChatClient, AiCallGuard, 캐시 등 나머지 경로는 운영과 동일하게 동작
+ */
+@Configuration
+@Profile("loadtest")
+public class LoadTestAiConfiguration {
+
+    @Bean(name = "visionChatModel")
+    @Primary
+    public ChatModel visionChatModel(
+            @Value("${app.ai.loadtest.vision.latency-median-ms:1500}") long medianMs,
+            @Value("${app.ai.loadtest.vision.latency-p99-ms:6000}") long p99Ms,
+            @Value("${app.ai.loadtest.vision.error-rate:0.01}") double errorRate) {
+        return new LoadTestChatModel("loadtest-vision", medianMs, p99Ms, errorRate);
+    }
+
+    @Bean(name = "reportChatModel")
+    public ChatModel reportChatModel(
+            @Value("${app.ai.loadtest.report.latency-median-ms:4000}") long medianMs,
+            @Value("${app.ai.loadtest.report.latency-p99-ms:15000}") long p99Ms,
+            @Value("${app.ai.loadtest.report.error-rate:0.01}") double errorRate) {
+        return new LoadTestChatModel("loadtest-report", medianMs, p99Ms, errorRate);
+    }
+}
@@ -0,0 +1,157 @@
+package com.ssafy.bapai.ai.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.DefaultUsage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.retry.NonTransientAiException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * loadtest 프로필 전용 ChatModel (실제 게이트웨이 호출/토큰 과금 없음)
+ * - 지연: 로그정규분포 (median, p99 로 모양 지정) -> 실제 LLM 처럼 꼬리가 긴 분포
+ * - 실패: errorRate 확률로 업스트림 오류 흉내 (AiCallGuard 서킷/fallback 경로 검증)
+ * - 응답: 프롬프트 종류별로 실제와 같은 모양 (음식 분석 JSON / 챌린지 JSON 배열 / 점수 숫자 / 리포트 문장)
+ * - usage 메타데이터 포함 -> AiMetrics 토큰/비용 지표도 그대로 확인 가능
+ */
+public class LoadTestChatModel implements ChatModel {
+
+    private static final double Z_99 = 2.326; // 표준정규분포 99% 분위수
+    private static final int STREAM_CHUNK_CHARS = 8;
+
+    private static final String[][] FOODS = {
+            {"김치찌개", "450", "20.5", "15.0", "10.2"},
+            {"비빔밥", "580", "85.0", "18.5", "14.0"},
+            {"닭가슴살 샐러드", "320", "12.0", "35.0", "9.5"},
+            {"제육볶음", "620", "30.0", "32.0", "35.0"},
+            {"된장찌개", "280", "18.0", "16.0", "12.0"},
+            {"연어덮밥", "540", "70.0", "28.0", "15.0"}
+    };
+
+    private static final String[] REPORT_SENTENCES = {
+            "이번 기간에는 단백질 섭취가 목표 대비 안정적으로 유지되었습니다.",
+            "저녁 식사의 탄수화물 비중이 높아 혈당 변동이 클 수 있으니 채소를 먼저 드셔보세요.",
+            "나트륨이 많은 국물 요리가 자주 보여, 국물은 절반 정도만 드시는 것을 권장합니다.",
+            "아침 식사를 거른 날이 있어 점심 과식으로 이어지는 경향이 있습니다.",
+            "다음 끼니로는 두부나 생선 등 지방이 적은 단백질 위주의 메뉴를 추천드립니다.",
+            "전반적으로 목표 칼로리에 가깝게 잘 관리하고 계십니다. 지금 흐름을 유지해보세요."
+    };
+
+    private final String model;
+    private final double mu;
+    private final double sigma;
+    private final double errorRate;
+
+    public LoadTestChatModel(String model, long latencyMedianMs, long latencyP99Ms, double errorRate) {
+        this.model = model;
+        this.mu = Math.log(Math.max(1, latencyMedianMs));
+        this.sigma = Math.log(Math.max(latencyP99Ms, latencyMedianMs) / (double) Math.max(1, latencyMedianMs)) / Z_99;
+        this.errorRate = errorRate;
+    }
+
+    @Override
+    public ChatResponse call(Prompt prompt) {
+        long latencyMs = sampleLatencyMs();
+        try {
+            TimeUnit.MILLISECONDS.sleep(latencyMs);
+        } catch (InterruptedException e) {
+            // AiCallGuard 타임아웃 시 cancel(true) -> 실제 HTTP 호출처럼 중단
+            Thread.currentThread().interrupt();
+            throw new NonTransientAiException("loadtest: interrupted");
+        }
+        if (shouldFail()) {
+            throw new NonTransientAiException("loadtest: simulated upstream error (HTTP 503)");
+        }
+        String input = prompt.getContents();
+        return response(input, answerFor(input));
+    }
+
+    // 첫 청크까지 지연의 일부, 나머지는 청크마다 나눠서 전송 (토큰 스트리밍 흉내)
+    @Override
+    public Flux<ChatResponse> stream(Prompt prompt) {
+        return Flux.defer(() -> {
+            long latencyMs = sampleLatencyMs();
+            if (shouldFail()) {
+                return Mono.<ChatResponse>error(
+                                new NonTransientAiException("loadtest: simulated upstream error (HTTP 503)"))
+                        .delaySubscription(Duration.ofMillis(latencyMs));
+            }
+
+            String input = prompt.getContents();
+            String answer = answerFor(input);
+            List<String> chunks = new ArrayList<>();
+            for (int i = 0; i < answer.length(); i += STREAM_CHUNK_CHARS) {
+                chunks.add(answer.substring(i, Math.min(answer.length(), i + STREAM_CHUNK_CHARS)));
+            }
+
+            long firstTokenMs = latencyMs / 5;
+            long perChunkMs = (latencyMs - firstTokenMs) / Math.max(1, chunks.size());
+            Flux<ChatResponse> body = Flux.fromIterable(chunks)
+                    .delayElements(Duration.ofMillis(Math.max(1, perChunkMs)))
+                    .map(chunk -> new ChatResponse(List.of(new Generation(new AssistantMessage(chunk)))));
+
+            // streamUsage 와 동일하게 마지막 청크(본문 없음)에 usage 포함
+            return body.delaySubscription(Duration.ofMillis(firstTokenMs))
+                    .concatWith(Mono.fromSupplier(() -> response(input, "")));
+        });
+    }
+
+    private ChatResponse response(String input, String answer) {
+        ChatResponseMetadata metadata = ChatResponseMetadata.builder()
+                .model(model)
+                .usage(new DefaultUsage(estimateTokens(input), estimateTokens(answer)))
+                .build();
+        return new ChatResponse(List.of(new Generation(new AssistantMessage(answer))), metadata);
+    }
+
+    // AiService 프롬프트 종류별 응답 모양
+    private String answerFor(String input) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (input.contains("JSON 배열")) {
+            return """
+                    [{"title":"하루 물 2L 마시기","content":"매일 물 2L 이상 마시고 인증하기","goalType":"COUNT","targetCount":5,"keyword":"수분"},
+                    {"title":"저녁 8시 이후 금식","content":"저녁 8시 이후 야식 참기","goalType":"COUNT","targetCount":5,"keyword":"다이어트"},
+                    {"title":"단백질 챙기기","content":"끼니마다 단백질 식품 포함하기","goalType":"SCORE","targetCount":80,"keyword":"근력"}]""";
+        }
+        if (input.contains("foodName")) {
+            String[] food = FOODS[random.nextInt(FOODS.length)];
+            return """
+                    ```json
+                    {"foodName":"%s","kcal":%s,"carbs":%s,"protein":%s,"fat":%s,"score":%d,"aiAnalysis":"%s"}
+                    ```""".formatted(food[0], food[1], food[2], food[3], food[4],
+                    60 + random.nextInt(36), REPORT_SENTENCES[random.nextInt(REPORT_SENTENCES.length)]);
+        }
+        if (input.contains("'숫자'만")) {
+            return String.valueOf(60 + random.nextInt(36));
+        }
+
+        StringBuilder sb = new StringBuilder();
+        int sentences = 3 + random.nextInt(4);
+        for (int i = 0; i < sentences; i++) {
+            sb.append(REPORT_SENTENCES[random.nextInt(REPORT_SENTENCES.length)]).append(' ');
+        }
+        return sb.toString().trim();
+    }
+
+    private long sampleLatencyMs() {
+        return Math.round(Math.exp(mu + sigma * ThreadLocalRandom.current().nextGaussian()));
+    }
+
+    private boolean shouldFail() {
+        return errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate;
+    }
+
+    // 한글 위주 프롬프트 기준 대략 2글자당 1토큰
+    private static int estimateTokens(String text) {
+        return (text == null) ? 0 : (text.length() + 1) / 2;
+    }
+}
@@ -2,16 +2,23 @@ package com.ssafy.bapai.ai.controller;
 
 import com.ssafy.bapai.ai.dto.AiReportResponse;
 import com.ssafy.bapai.ai.dto.GapReportDto;
+import com.ssafy.bapai.ai.dto.ReportJobDto;
 import com.ssafy.bapai.ai.service.AiService;
+import com.ssafy.bapai.ai.service.ChallengeRecommendationService;
+import com.ssafy.bapai.ai.service.ReportJobService;
 import com.ssafy.bapai.challenge.dto.ChallengePresetDto;
 import com.ssafy.bapai.common.util.JwtUtil;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -22,6 +29,7 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
+import reactor.core.publisher.Flux;
 
 @RestController
 @RequestMapping("/api/ai")
@@ -31,6 +39,8 @@ import org.springframework.web.multipart.MultipartFile;
 public class AiRestController {
 
     private final AiService aiService;
+    private final ReportJobService reportJobService;
+    private final ChallengeRecommendationService challengeRecommendationService;
     private final JwtUtil jwtUtil;
 
     // 1. 식단 이미지 분석 (테스트용)
@@ -67,12 +77,12 @@ public class AiRestController {
     }
 
     // 3. AI 챌린지 추천 (ChallengeService에서 가져옴)
-    @Operation(summary = "AI 챌린지 추천", description = "관심사 키워드(예: 다이어트, 근력)를 입력하면 챌린지 주제를 추천해줍니다.")
+    @Operation(summary = "AI 챌린지 추천", description = "관심사 키워드(예: 다이어트, 근력)를 입력하면 챌린지 주제를 추천해줍니다. (키워드 조합별 캐싱)")
     @GetMapping("/challenges/recommend")
     public ResponseEntity<List<ChallengePresetDto>> recommendChallenges(
             @Parameter(description = "관심 키워드 리스트 (예: ?keywords=다이어트&keywords=운동)")
             @RequestParam(required = false) List<String> keywords) {
-        return ResponseEntity.ok(aiService.recommendGroupChallenges(keywords));
+        return ResponseEntity.ok(challengeRecommendationService.recommend(keywords));
     }
 
     // 4. 일간 리포트 조회
@@ -113,4 +123,80 @@ public class AiRestController {
         Long userId = jwtUtil.getUserId(token);
         return ResponseEntity.ok(aiService.getGapAnalysis(userId, groupId, type));
     }
-}
\ No newline at end of file
+
+    // ---------- SSE 스트리밍 (토큰 단위 전송, 완료 시 report_log 저장) ----------
+    @Operation(summary = "다음 끼니 추천 (스트리밍)", description = "추천 문장을 SSE(token 이벤트)로 흘려보내고 마지막에 done 이벤트를 보냅니다.")
+    @GetMapping(value = "/recommend/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<String>> streamNextMeal(
+            @RequestHeader("Authorization") String token) {
+        Long userId = jwtUtil.getUserId(token);
+        return toSse(aiService.streamNextMeal(userId));
+    }
+
+    @Operation(summary = "일간 리포트 (스트리밍)", description = "일간 리포트 AI 조언을 SSE로 전송합니다. (DB 캐시 적중 시 한 번에 전송)")
+    @GetMapping(value = "/report/daily/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<String>> streamDailyReport(
+            @RequestHeader("Authorization") String token,
+            @RequestParam(required = false) String date) {
+        Long userId = jwtUtil.getUserId(token);
+        return toSse(aiService.streamDailyReport(userId, date));
+    }
+
+    @Operation(summary = "주간 리포트 (스트리밍)", description = "최근 1주일 AI 총평을 SSE로 전송합니다.")
+    @GetMapping(value = "/report/weekly/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<String>> streamWeeklyReport(
+            @RequestHeader("Authorization") String token) {
+        Long userId = jwtUtil.getUserId(token);
+        return toSse(aiService.streamPeriodReport(userId, "WEEKLY"));
+    }
+
+    @Operation(summary = "월간 리포트 (스트리밍)", description = "최근 1달 AI 총평을 SSE로 전송합니다.")
+    @GetMapping(value = "/report/monthly/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<String>> streamMonthlyReport(
+            @RequestHeader("Authorization") String token) {
+        Long userId = jwtUtil.getUserId(token);
+        return toSse(aiService.streamPeriodReport(userId, "MONTHLY"));
+    }
+
+    private Flux<ServerSentEvent<String>> toSse(Flux<String> chunks) {
+        return chunks
+                .map(chunk -> ServerSentEvent.<String>builder(chunk).event("token").build())
+                .concatWith(Flux.just(ServerSentEvent.<String>builder("").event("done").build()));
+    }
+
+    // 비동기 리포트 생성 (jobId 즉시 반환 -> 폴링 또는 STOMP /user/queue/ai/report 수신)
+    @Operation(summary = "리포트 비동기 생성 요청", description = "type(WEEKLY/MONTHLY) 리포트 생성 작업을 등록하고 jobId를 즉시 반환합니다. groupId를 주면 비교 분석(Gap Analysis)을 생성합니다.")
+    @PostMapping("/report/jobs")
+    public ResponseEntity<?> submitReportJob(
+            @RequestHeader("Authorization") String token,
+            @RequestParam(defaultValue = "WEEKLY") String type,
+            @RequestParam(required = false) Long groupId) {
+        Long userId = jwtUtil.getUserId(token);
+        if (!"WEEKLY".equals(type) && !"MONTHLY".equals(type)) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("message", "type은 WEEKLY 또는 MONTHLY만 가능합니다."));
+        }
+        try {
+            String jobId = reportJobService.submit(userId, type, groupId);
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(Map.of("jobId", jobId, "status", ReportJobService.STATUS_QUEUED));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(Map.of("message", "리포트 생성 요청이 많습니다. 잠시 후 다시 시도해주세요."));
+        }
+    }
+
+    @Operation(summary = "리포트 비동기 생성 상태 조회", description = "QUEUED/RUNNING/DONE/FAILED 상태와 완료 시 결과를 반환합니다.")
+    @GetMapping("/report/jobs/{jobId}")
+    public ResponseEntity<?> getReportJob(
+            @RequestHeader("Authorization") String token,
+            @PathVariable String jobId) {
+        Long userId = jwtUtil.getUserId(token);
+        ReportJobDto job = reportJobService.getJob(jobId);
+        if (job == null || !userId.equals(job.getUserId())) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("message", "존재하지 않거나 만료된 작업입니다."));
+        }
+        return ResponseEntity.ok(job);
+    }
+}
@@ -0,0 +1,61 @@
+package com.ssafy.bapai.ai.dto;
+
+import com.fasterxml.jackson.annotation.JsonAlias;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.List;
+
+/**
+ * 음식 분석 결과 (LLM / 식품 DB / 캐시 공통)
+ * - 단일 음식: foodName, kcal ... 최상위 필드
+ * - 여러 음식: foodList (LLM 이 items 로 답하는 경우도 허용)
+ * - items() 는 두 모양을 항상 목록으로 돌려줌 (DietServiceImpl 에서 사용)
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record FoodAnalysisResult(
+        String foodName,
+        Double kcal,
+        Double carbs,
+        Double protein,
+        Double fat,
+        Integer score,
+        String aiAnalysis,
+        @JsonAlias("items") List<Item> foodList) {
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Item(
+            String foodName,
+            Double kcal,
+            Double carbs,
+            Double protein,
+            Double fat,
+            Integer amount) {
+    }
+
+    private static final FoodAnalysisResult FALLBACK = new FoodAnalysisResult(
+            "분석 실패 (직접 입력해주세요)", 0.0, 0.0, 0.0, 0.0, 0,
+            "죄송합니다. 음식 분석에 실패했습니다.", null);
+
+    // 분석 실패 시 사용자에게 보여줄 기본값 (직접 입력 유도)
+    public static FoodAnalysisResult fallback() {
+        return FALLBACK;
+    }
+
+    @JsonIgnore
+    public boolean failed() {
+        return FALLBACK.equals(this);
+    }
+
+    public List<Item> items() {
+        if (foodList != null && !foodList.isEmpty()) {
+            return foodList;
+        }
+        if (foodName == null) {
+            return List.of();
+        }
+        return List.of(new Item(foodName, kcal, carbs, protein, fat, null));
+    }
+}
@@ -0,0 +1,22 @@
+package com.ssafy.bapai.ai.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportJobDto {
+    private String jobId;
+    private Long userId;
+    private String reportType;  // WEEKLY, MONTHLY, GAP_ANALYSIS
+    private Long groupId;       // GAP_ANALYSIS 일 때만 사용
+    private String status;      // QUEUED, RUNNING, DONE, FAILED
+    private Object result;      // AiReportResponse 또는 GapReportDto
+    private String message;     // 실패 사유
+    private Long createdAt;     // epoch millis
+    private Long finishedAt;    // epoch millis
+}
@@ -0,0 +1,134 @@
+package com.ssafy.bapai.ai.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 모델(vision/report)별 LLM 동시 호출 제한 (Bulkhead)
+ * - 동시 실행 maxConcurrent 개, 대기는 maxWaiting 개까지 maxWaitMs 동안만
+ * - 초과 시 즉시 AiCallRejectedException -> 호출부에서 기존 fallback 처리
+ * - 사진 업로드 폭주가 board/group 등 다른 API 의 서블릿 스레드를 잡아먹지 않도록 방어
+ */
+@Component
+public class AiBulkhead {
+
+    private final Map<AiModel, Compartment> compartments = new EnumMap<>(AiModel.class);
+
+    private static final class Compartment {
+        private final Semaphore permits;
+        private final int maxWaiting;
+        private final long maxWaitMs;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger waiting = new AtomicInteger();
+        private final Counter rejected;
+
+        private Compartment(AiModel model, int maxConcurrent, int maxWaiting, long maxWaitMs,
+                            MeterRegistry meterRegistry) {
+            this.permits = new Semaphore(maxConcurrent, true);
+            this.maxWaiting = maxWaiting;
+            this.maxWaitMs = maxWaitMs;
+            this.rejected = Counter.builder("ai.bulkhead.rejected")
+                    .tag("model", model.tag())
+                    .register(meterRegistry);
+            Gauge.builder("ai.bulkhead.inflight", inFlight, AtomicInteger::get)
+                    .tag("model", model.tag())
+                    .register(meterRegistry);
+            Gauge.builder("ai.bulkhead.queued", waiting, AtomicInteger::get)
+                    .tag("model", model.tag())
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * 획득한 실행 권한. close() 로 반납 (여러 번 호출해도 한 번만 반납)
+     */
+    public final class Permit implements AutoCloseable {
+        private final Compartment compartment;
+        private final AtomicBoolean released = new AtomicBoolean(false);
+
+        private Permit(Compartment compartment) {
+            this.compartment = compartment;
+        }
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                compartment.inFlight.decrementAndGet();
+                compartment.permits.release();
+            }
+        }
+    }
+
+    public AiBulkhead(MeterRegistry meterRegistry,
+                      @Value("${app.ai.bulkhead.vision.max-concurrent:16}") int visionMaxConcurrent,
+                      @Value("${app.ai.bulkhead.vision.max-waiting:32}") int visionMaxWaiting,
+                      @Value("${app.ai.bulkhead.vision.max-wait-ms:2000}") long visionMaxWaitMs,
+                      @Value("${app.ai.bulkhead.report.max-concurrent:8}") int reportMaxConcurrent,
+                      @Value("${app.ai.bulkhead.report.max-waiting:16}") int reportMaxWaiting,
+                      @Value("${app.ai.bulkhead.report.max-wait-ms:2000}") long reportMaxWaitMs) {
+        compartments.put(AiModel.VISION, new Compartment(AiModel.VISION,
+                visionMaxConcurrent, visionMaxWaiting, visionMaxWaitMs, meterRegistry));
+        compartments.put(AiModel.REPORT, new Compartment(AiModel.REPORT,
+                reportMaxConcurrent, reportMaxWaiting, reportMaxWaitMs, meterRegistry));
+    }
+
+    public <T> T execute(AiModel model, Supplier<T> call) {
+        Permit permit = acquire(model);
+        try {
+            return call.get();
+        } finally {
+            permit.close();
+        }
+    }
+
+    /**
+     * 스트리밍처럼 호출 종료 시점이 메서드 밖인 경우 직접 획득/반납
+     */
+    public Permit acquire(AiModel model) {
+        Compartment c = compartments.get(model);
+
+        // 무인자 tryAcquire 는 공정 세마포어에서도 대기 중인 요청을 새치기하므로 0ms 대기로 순서 유지
+        boolean acquired;
+        try {
+            acquired = c.permits.tryAcquire(0, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw reject(c, model, "대기 중 인터럽트");
+        }
+        if (!acquired) {
+            if (c.waiting.incrementAndGet() > c.maxWaiting) {
+                c.waiting.decrementAndGet();
+                throw reject(c, model, "대기열 초과");
+            }
+            try {
+                if (!c.permits.tryAcquire(c.maxWaitMs, TimeUnit.MILLISECONDS)) {
+                    throw reject(c, model, "대기 시간 초과");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw reject(c, model, "대기 중 인터럽트");
+            } finally {
+                c.waiting.decrementAndGet();
+            }
+        }
+
+        c.inFlight.incrementAndGet();
+        return new Permit(c);
+    }
+
+    private AiCallRejectedException reject(Compartment c, AiModel model, String reason) {
+        c.rejected.increment();
+        return new AiCallRejectedException(
+                "AI 호출 거절(" + model.tag() + "): " + reason);
+    }
+}
@@ -0,0 +1,271 @@
+package com.ssafy.bapai.ai.service;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+/**
+ * 모든 LLM 호출의 공통 방어막
+ * 1) 모델별 Circuit Breaker: 에러율/느린 호출 비율이 높으면 OPEN -> 즉시 fallback
+ * 2) 모델별 Bulkhead: 동시 호출/대기열 제한 (AiBulkhead)
+ * 3) 목적(purpose)별 적응형 타임아웃: 최근 성공 응답 p99 x 배수 (min~max 범위, 타임아웃/실패는 표본 제외)
+ *    - 스트리밍은 "{purpose}:stream" 으로 따로 집계, 전체 시간 대신 청크 사이 최대 공백을 기록
+ * - RestClient read timeout(120s)은 최후의 상한으로만 남김
+ */
+@Slf4j
+@Component
+public class AiCallGuard {
+
+    private static final int SAMPLE_WINDOW = 200;
+    private static final String STREAM_SUFFIX = ":stream";
+
+    private final AiBulkhead aiBulkhead;
+    private final MeterRegistry meterRegistry;
+    private final Map<AiModel, CircuitBreaker> breakers = new EnumMap<>(AiModel.class);
+    private final Map<String, AdaptiveTimeout> timeouts = new ConcurrentHashMap<>();
+    private final ExecutorService executor;
+
+    private final long minTimeoutMs;
+    private final long maxTimeoutMs;
+    private final double timeoutMultiplier;
+    private final int minSamples;
+
+    public AiCallGuard(AiBulkhead aiBulkhead,
+                       MeterRegistry meterRegistry,
+                       @Value("${app.ai.circuit.failure-rate:50}") float failureRate,
+                       @Value("${app.ai.circuit.slow-call-rate:80}") float slowCallRate,
+                       @Value("${app.ai.circuit.slow-call-ms:30000}") long slowCallMs,
+                       @Value("${app.ai.circuit.window-size:20}") int windowSize,
+                       @Value("${app.ai.circuit.min-calls:10}") int minCalls,
+                       @Value("${app.ai.circuit.open-wait-seconds:30}") long openWaitSeconds,
+                       @Value("${app.ai.timeout.min-ms:5000}") long minTimeoutMs,
+                       @Value("${app.ai.timeout.max-ms:120000}") long maxTimeoutMs,
+                       @Value("${app.ai.timeout.multiplier:2.0}") double timeoutMultiplier,
+                       @Value("${app.ai.timeout.min-samples:20}") int minSamples) {
+        this.aiBulkhead = aiBulkhead;
+        this.meterRegistry = meterRegistry;
+        this.minTimeoutMs = minTimeoutMs;
+        this.maxTimeoutMs = maxTimeoutMs;
+        this.timeoutMultiplier = timeoutMultiplier;
+        this.minSamples = minSamples;
+
+        CircuitBreakerConfig config = CircuitBreakerConfig.custom()
+                .failureRateThreshold(failureRate)
+                .slowCallRateThreshold(slowCallRate)
+                .slowCallDurationThreshold(Duration.ofMillis(slowCallMs))
+                .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
+                .slidingWindowSize(windowSize)
+                .minimumNumberOfCalls(minCalls)
+                .waitDurationInOpenState(Duration.ofSeconds(openWaitSeconds))
+                .permittedNumberOfCallsInHalfOpenState(3)
+                .automaticTransitionFromOpenToHalfOpenEnabled(true)
+                .build();
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(config);
+        for (AiModel model : AiModel.values()) {
+            breakers.put(model, registry.circuitBreaker("ai-" + model.tag()));
+        }
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(registry).bindTo(meterRegistry);
+
+        AtomicInteger seq = new AtomicInteger();
+        this.executor = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "ai-call-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * 동기 호출. OPEN/Bulkhead 초과 시 AiCallRejectedException, 타임아웃 시 AiCallTimeoutException.
+     * 호출 스레드는 타임아웃에서 풀려나고, 실제 업스트림 호출이 끝날 때 Bulkhead 권한이 반납됨.
+     */
+    public <T> T call(String purpose, AiModel model, Supplier<T> supplier) {
+        CircuitBreaker breaker = breakers.get(model);
+        if (!breaker.tryAcquirePermission()) {
+            throw new AiCallRejectedException("AI 호출 차단(" + model.tag() + "): circuit open");
+        }
+
+        AiBulkhead.Permit permit;
+        try {
+            permit = aiBulkhead.acquire(model);
+        } catch (AiCallRejectedException e) {
+            breaker.releasePermission();
+            throw e;
+        }
+
+        AdaptiveTimeout timeout = timeoutOf(purpose);
+        long timeoutMs = timeout.currentMs();
+        long start = System.nanoTime();
+
+        AtomicBoolean started = new AtomicBoolean(false);
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                started.set(true);
+                try {
+                    return supplier.get();
+                } finally {
+                    permit.close();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            permit.close();
+            breaker.releasePermission();
+            throw new AiCallRejectedException("AI 호출 거절(" + model.tag() + "): 실행기 종료");
+        }
+
+        try {
+            T result = future.get(timeoutMs, TimeUnit.MILLISECONDS);
+            long elapsed = System.nanoTime() - start;
+            breaker.onSuccess(elapsed, TimeUnit.NANOSECONDS);
+            timeout.record(elapsed);
+            return result;
+        } catch (TimeoutException e) {
+            cancel(future, started, permit);
+            long elapsed = System.nanoTime() - start;
+            // 표본에는 넣지 않음 (넣으면 타임아웃이 늘어날수록 표본도 길어져 max 까지 자가 증폭)
+            // 업스트림이 전반적으로 느려진 경우는 Circuit Breaker 의 에러/느린 호출 비율로 처리
+            breaker.onError(elapsed, TimeUnit.NANOSECONDS, e);
+            throw new AiCallTimeoutException(purpose, timeoutMs);
+        } catch (ExecutionException e) {
+            Throwable cause = (e.getCause() != null) ? e.getCause() : e;
+            breaker.onError(System.nanoTime() - start, TimeUnit.NANOSECONDS, cause);
+            if (cause instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new IllegalStateException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancel(future, started, permit);
+            breaker.releasePermission();
+            throw new AiCallRejectedException("AI 호출 거절(" + model.tag() + "): 인터럽트");
+        }
+    }
+
+    /**
+     * 스트리밍 호출. 구독 시 권한 획득, 완료/에러/취소 시 기록 및 반납.
+     * 타임아웃은 청크 사이 공백(첫 토큰 포함)에 적용, 성공 시 그 최대 공백을 표본/느린 호출 판정에 사용.
+     */
+    public <T> Flux<T> stream(String purpose, AiModel model, Supplier<Flux<T>> supplier) {
+        return Flux.defer(() -> {
+            CircuitBreaker breaker = breakers.get(model);
+            if (!breaker.tryAcquirePermission()) {
+                return Flux.error(new AiCallRejectedException(
+                        "AI 호출 차단(" + model.tag() + "): circuit open"));
+            }
+
+            AiBulkhead.Permit permit;
+            try {
+                permit = aiBulkhead.acquire(model);
+            } catch (AiCallRejectedException e) {
+                breaker.releasePermission();
+                return Flux.error(e);
+            }
+
+            // 스트림은 전체 길이가 응답 길이에 비례하므로 call() 과 표본을 섞지 않음
+            // 기록값도 타임아웃이 실제로 재는 값(첫 토큰 포함 청크 사이 최대 공백)으로 맞춤
+            AdaptiveTimeout timeout = timeoutOf(purpose + STREAM_SUFFIX);
+            long start = System.nanoTime();
+            AtomicLong last = new AtomicLong(start);
+            AtomicLong maxGap = new AtomicLong();
+            return supplier.get()
+                    .timeout(Duration.ofMillis(timeout.currentMs()))
+                    .doOnNext(chunk -> maxGap.accumulateAndGet(gap(last), Math::max))
+                    .doOnComplete(() -> {
+                        long gap = maxGap.accumulateAndGet(gap(last), Math::max);
+                        breaker.onSuccess(gap, TimeUnit.NANOSECONDS);
+                        timeout.record(gap);
+                    })
+                    .doOnError(e -> breaker.onError(System.nanoTime() - start,
+                            TimeUnit.NANOSECONDS, e))
+                    .doOnCancel(breaker::releasePermission)
+                    .doFinally(signal -> permit.close());
+        });
+    }
+
+    private static long gap(AtomicLong last) {
+        long now = System.nanoTime();
+        return now - last.getAndSet(now);
+    }
+
+    // 작업이 시작조차 못 하고 취소되면 finally 가 돌지 않으므로 여기서 권한 반납
+    private void cancel(Future<?> future, AtomicBoolean started, AiBulkhead.Permit permit) {
+        future.cancel(true);
+        if (!started.get()) {
+            permit.close();
+        }
+    }
+
+    public CircuitBreaker.State stateOf(AiModel model) {
+        return breakers.get(model).getState();
+    }
+
+    public long currentTimeoutMs(String purpose) {
+        return timeoutOf(purpose).currentMs();
+    }
+
+    private AdaptiveTimeout timeoutOf(String purpose) {
+        return timeouts.computeIfAbsent(purpose, p -> {
+            AdaptiveTimeout t = new AdaptiveTimeout();
+            Gauge.builder("ai.timeout.current.ms", t, AdaptiveTimeout::currentMs)
+                    .tag("purpose", p)
+                    .register(meterRegistry);
+            return t;
+        });
+    }
+
+    // 최근 SAMPLE_WINDOW 개 성공 응답시간의 p99 x 배수 (표본 부족 시 최대값)
+    // 성공 응답만 기록하고 표본도 maxTimeoutMs 로 잘라서, 증가 폭은 항상 max 이하로 제한
+    private final class AdaptiveTimeout {
+        private final long[] samples = new long[SAMPLE_WINDOW];
+        private int size;
+        private int next;
+
+        synchronized void record(long nanos) {
+            samples[next] = Math.min(nanos, TimeUnit.MILLISECONDS.toNanos(maxTimeoutMs));
+            next = (next + 1) % SAMPLE_WINDOW;
+            if (size < SAMPLE_WINDOW) {
+                size++;
+            }
+        }
+
+        synchronized long currentMs() {
+            if (size < minSamples) {
+                return maxTimeoutMs;
+            }
+            long[] sorted = Arrays.copyOf(samples, size);
+            Arrays.sort(sorted);
+            long p99 = sorted[(int) Math.ceil(size * 0.99) - 1];
+            long ms = (long) (TimeUnit.NANOSECONDS.toMillis(p99) * timeoutMultiplier);
+            return Math.max(minTimeoutMs, Math.min(maxTimeoutMs, ms));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,11 @@
+package com.ssafy.bapai.ai.service;
+
+// 동시 호출 한도/대기열 초과 등으로 LLM 호출을 시도조차 하지 않고 거절한 경우
+public class AiCallRejectedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public AiCallRejectedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.ssafy.bapai.ai.service;
+
+// 목적(purpose)별 적응형 타임아웃 안에 LLM 응답이 오지 않은 경우
+public class AiCallTimeoutException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public AiCallTimeoutException(String purpose, long timeoutMs) {
+        super("AI 호출 타임아웃. purpose=" + purpose + ", timeoutMs=" + timeoutMs);
+    }
+}
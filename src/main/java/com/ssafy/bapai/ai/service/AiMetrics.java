@@ -0,0 +1,109 @@
+package com.ssafy.bapai.ai.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * LLM 호출 지표 (purpose x model 태그)
+ * - ai.calls (Timer): outcome = success / empty / rejected / timeout / error
+ * - ai.fallbacks (Counter): 사용자에게 fallback 문구/JSON 이 나간 횟수
+ * - ai.tokens (Counter): type = prompt / completion (ChatResponse usage 메타데이터)
+ * - ai.cost.usd (Counter): 토큰 x 모델별 단가(100만 토큰당 USD, 설정값)
+ * - ai.image.bytes (DistributionSummary): stage = original / compressed
+ * - 캐시 적중률은 ai.cache.requests (FoodAnalysisCache 등) 참고
+ */
+@Component
+public class AiMetrics {
+
+    public static final String SUCCESS = "success";
+    public static final String EMPTY = "empty";
+    public static final String REJECTED = "rejected";
+    public static final String TIMEOUT = "timeout";
+    public static final String ERROR = "error";
+
+    private record Pricing(double promptPerMillion, double completionPerMillion) {
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final Map<AiModel, Pricing> pricing = new EnumMap<>(AiModel.class);
+
+    public AiMetrics(MeterRegistry meterRegistry,
+                     @Value("${app.ai.pricing.vision.prompt-per-million:2.5}") double visionPrompt,
+                     @Value("${app.ai.pricing.vision.completion-per-million:10}") double visionCompletion,
+                     @Value("${app.ai.pricing.report.prompt-per-million:1.25}") double reportPrompt,
+                     @Value("${app.ai.pricing.report.completion-per-million:10}") double reportCompletion) {
+        this.meterRegistry = meterRegistry;
+        pricing.put(AiModel.VISION, new Pricing(visionPrompt, visionCompletion));
+        pricing.put(AiModel.REPORT, new Pricing(reportPrompt, reportCompletion));
+    }
+
+    public void recordCall(String purpose, AiModel model, String outcome, long nanos) {
+        Timer.builder("ai.calls")
+                .tag("purpose", purpose)
+                .tag("model", model.tag())
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordFallback(String purpose, AiModel model) {
+        meterRegistry.counter("ai.fallbacks", "purpose", purpose, "model", model.tag()).increment();
+    }
+
+    /**
+     * usage 메타데이터가 있으면 토큰/비용 기록.
+     * Spring AI 버전별로 Integer/Long 이 섞여 있어 Number 로 받고, completion 은 total - prompt 로 계산
+     */
+    public void recordUsage(String purpose, AiModel model, ChatResponse response) {
+        if (response == null || response.getMetadata() == null) {
+            return;
+        }
+        Usage usage = response.getMetadata().getUsage();
+        if (usage == null) {
+            return;
+        }
+        Number promptTokens = usage.getPromptTokens();
+        Number totalTokens = usage.getTotalTokens();
+        long prompt = (promptTokens != null) ? promptTokens.longValue() : 0L;
+        long completion = Math.max(0L, ((totalTokens != null) ? totalTokens.longValue() : 0L) - prompt);
+        if (prompt == 0 && completion == 0) {
+            return;
+        }
+
+        meterRegistry.counter("ai.tokens", "purpose", purpose, "model", model.tag(),
+                "type", "prompt").increment(prompt);
+        meterRegistry.counter("ai.tokens", "purpose", purpose, "model", model.tag(),
+                "type", "completion").increment(completion);
+
+        Pricing p = pricing.get(model);
+        double usd = (prompt * p.promptPerMillion() + completion * p.completionPerMillion()) / 1_000_000d;
+        meterRegistry.counter("ai.cost.usd", "purpose", purpose, "model", model.tag()).increment(usd);
+    }
+
+    public void recordImageBytes(String stage, int bytes) {
+        DistributionSummary.builder("ai.image.bytes")
+                .baseUnit("bytes")
+                .tag("stage", stage)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(bytes);
+    }
+
+    // ChatResponse -> 본문 텍스트 (스트리밍 청크/빈 응답 방어)
+    public static String textOf(ChatResponse response) {
+        if (response == null || response.getResult() == null
+                || response.getResult().getOutput() == null) {
+            return null;
+        }
+        return response.getResult().getOutput().getText();
+    }
+}
@@ -0,0 +1,18 @@
+package com.ssafy.bapai.ai.service;
+
+// LLM 호출 대상 모델 구분 (AiConfiguration 의 visionChatModel / reportChatModel)
+public enum AiModel {
+    VISION("vision"),
+    REPORT("report");
+
+    private final String tag;
+
+    AiModel(String tag) {
+        this.tag = tag;
+    }
+
+    // 메트릭 태그 값
+    public String tag() {
+        return tag;
+    }
+}
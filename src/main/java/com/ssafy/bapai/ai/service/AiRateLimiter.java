@@ -0,0 +1,156 @@
+package com.ssafy.bapai.ai.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+/**
+ * 사용자 x AI 용도별 토큰 버킷 (Redis, 노드 간 공유)
+ * - 버킷 = capacity 개, period 동안 capacity 개가 균등하게 다시 채워짐 (순간 몰림은 capacity 까지 허용)
+ * - 요금제(plan)는 JWT role: ROLE_USER -> user, 그 외(ROLE_GUEST 등) -> guest
+ * - 설정 형식: "analyze=20/10m,recommend=30/10m" (용도=개수/기간, 기간 단위 s|m|h). 없는 용도는 제한 없음
+ * - 시각은 Redis TIME 사용 (노드 간 시계 차이 무관), 한 번의 스크립트로 조회+차감 (원자적)
+ * - Redis 장애 시에는 허용 (가용성 우선, 업스트림 보호는 AiCallGuard bulkhead 가 담당)
+ */
+@Slf4j
+@Component
+public class AiRateLimiter {
+
+    private static final String KEY_PREFIX = "ai:ratelimit:";
+
+    // KEYS[1]=버킷, ARGV[1]=capacity, ARGV[2]=ms 당 충전량 -> {허용 여부, 재시도까지 ms, 남은 개수}
+    private static final RedisScript<List<Long>> TOKEN_BUCKET_SCRIPT = listScript(
+            "local capacity = tonumber(ARGV[1]) "
+                    + "local rate = tonumber(ARGV[2]) "
+                    + "local t = redis.call('TIME') "
+                    + "local now = tonumber(t[1]) * 1000 + math.floor(tonumber(t[2]) / 1000) "
+                    + "local bucket = redis.call('HMGET', KEYS[1], 'tokens', 'ts') "
+                    + "local tokens = tonumber(bucket[1]) "
+                    + "local ts = tonumber(bucket[2]) "
+                    + "if tokens == nil or ts == nil then tokens = capacity ts = now end "
+                    + "tokens = math.min(capacity, tokens + math.max(0, now - ts) * rate) "
+                    + "local allowed = 0 "
+                    + "local retry = 0 "
+                    + "if tokens >= 1 then tokens = tokens - 1 allowed = 1 "
+                    + "else retry = math.ceil((1 - tokens) / rate) end "
+                    + "redis.call('HSET', KEYS[1], 'tokens', tostring(tokens), 'ts', now) "
+                    + "redis.call('PEXPIRE', KEYS[1], math.ceil(capacity / rate)) "
+                    + "return {allowed, retry, math.floor(tokens)}");
+
+    public static final String PLAN_USER = "user";
+    public static final String PLAN_GUEST = "guest";
+
+    public record Limit(int capacity, Duration period) {
+
+        double tokensPerMs() {
+            return capacity / (double) period.toMillis();
+        }
+    }
+
+    public record Decision(boolean allowed, long retryAfterMs, long remaining) {
+
+        static final Decision UNLIMITED = new Decision(true, 0, -1);
+    }
+
+    private final StringRedisTemplate redisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final Map<String, Map<String, Limit>> plans;
+
+    public AiRateLimiter(StringRedisTemplate redisTemplate,
+                         MeterRegistry meterRegistry,
+                         @Value("${app.ai.rate-limit.enabled:true}") boolean enabled,
+                         @Value("${app.ai.rate-limit.user:analyze=30/10m,recommend=30/10m,challenge=20/10m,report=60/1h}")
+                         String userPlan,
+                         @Value("${app.ai.rate-limit.guest:analyze=10/10m,recommend=10/10m,challenge=5/10m,report=20/1h}")
+                         String guestPlan) {
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.plans = Map.of(PLAN_USER, parsePlan(userPlan), PLAN_GUEST, parsePlan(guestPlan));
+    }
+
+    // Lua 정수 배열 응답은 List<Long> 으로 변환됨 (List.class 로는 제네릭 타입을 표현할 수 없어 캐스팅)
+    @SuppressWarnings("unchecked")
+    private static RedisScript<List<Long>> listScript(String script) {
+        return RedisScript.of(script, (Class<List<Long>>) (Class<?>) List.class);
+    }
+
+    public static String planOf(String role) {
+        return "ROLE_USER".equals(role) ? PLAN_USER : PLAN_GUEST;
+    }
+
+    /**
+     * 1회 호출 허용 여부 (허용이면 토큰 1개 차감)
+     */
+    public Decision tryAcquire(Long userId, String plan, String purpose) {
+        Limit limit = enabled ? plans.getOrDefault(plan, Collections.emptyMap()).get(purpose) : null;
+        if (limit == null) {
+            return Decision.UNLIMITED;
+        }
+
+        try {
+            List<Long> result = redisTemplate.execute(TOKEN_BUCKET_SCRIPT,
+                    List.of(KEY_PREFIX + purpose + ":" + userId),
+                    String.valueOf(limit.capacity()), String.valueOf(limit.tokensPerMs()));
+            if (result == null || result.size() < 3) {
+                count(purpose, plan, "error");
+                return Decision.UNLIMITED;
+            }
+            Decision decision = new Decision(result.get(0) == 1L, result.get(1), result.get(2));
+            count(purpose, plan, decision.allowed() ? "allowed" : "rejected");
+            return decision;
+        } catch (Exception e) {
+            log.warn("AI rate limit check failed, allowing. userId={}, purpose={}, err={}",
+                    userId, purpose, e.getMessage());
+            count(purpose, plan, "error");
+            return Decision.UNLIMITED;
+        }
+    }
+
+    private void count(String purpose, String plan, String result) {
+        meterRegistry.counter("ai.ratelimit.requests",
+                "purpose", purpose, "plan", plan, "result", result).increment();
+    }
+
+    // "analyze=20/10m, report=60/1h" -> {analyze: 20/10분, report: 60/1시간}
+    static Map<String, Limit> parsePlan(String spec) {
+        Map<String, Limit> limits = new HashMap<>();
+        if (spec == null || spec.isBlank()) {
+            return limits;
+        }
+        for (String entry : spec.split(",")) {
+            String[] kv = entry.trim().split("=");
+            String[] rate = (kv.length == 2) ? kv[1].trim().split("/") : new String[0];
+            if (rate.length != 2) {
+                throw new IllegalArgumentException("잘못된 rate-limit 설정: " + entry);
+            }
+            int capacity = Integer.parseInt(rate[0].trim());
+            Duration period = parsePeriod(rate[1].trim());
+            if (capacity <= 0 || period.isZero() || period.isNegative()) {
+                throw new IllegalArgumentException("잘못된 rate-limit 설정: " + entry);
+            }
+            limits.put(kv[0].trim().toLowerCase(Locale.ROOT), new Limit(capacity, period));
+        }
+        return limits;
+    }
+
+    private static Duration parsePeriod(String value) {
+        long amount = Long.parseLong(value.substring(0, value.length() - 1));
+        return switch (value.charAt(value.length() - 1)) {
+            case 's' -> Duration.ofSeconds(amount);
+            case 'm' -> Duration.ofMinutes(amount);
+            case 'h' -> Duration.ofHours(amount);
+            default -> throw new IllegalArgumentException("기간 단위는 s|m|h: " + value);
+        };
+    }
+}
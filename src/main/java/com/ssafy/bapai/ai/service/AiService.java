@@ -1,55 +1,56 @@
 package com.ssafy.bapai.ai.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.ssafy.bapai.ai.dao.ReportDao;
 import com.ssafy.bapai.ai.dto.AiReportResponse;
+import com.ssafy.bapai.ai.dto.FoodAnalysisResult;
 import com.ssafy.bapai.ai.dto.GapReportDto;
 import com.ssafy.bapai.ai.dto.ReportLogDto;
 import com.ssafy.bapai.challenge.dto.ChallengePresetDto;
 import com.ssafy.bapai.diet.dao.DietDao;
 import com.ssafy.bapai.diet.dto.DietDto;
-import com.ssafy.bapai.member.dto.MemberDto;
+import com.ssafy.bapai.diet.service.DietScoreCalculator;
+import com.ssafy.bapai.member.dto.HealthProfileSnapshot;
 import com.ssafy.bapai.member.dto.MemberGoalDto;
-import com.ssafy.bapai.member.service.HealthService;
-import com.ssafy.bapai.member.service.MemberService;
-import com.ssafy.bapai.member.service.OptionService;
-import java.awt.Graphics2D;
-import java.awt.RenderingHints;
-import java.awt.image.BufferedImage;
-import java.io.ByteArrayOutputStream;
+import com.ssafy.bapai.member.service.HealthProfileService;
 import java.io.IOException;
+import java.time.Clock;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
-import javax.imageio.ImageIO;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.chat.messages.UserMessage;
 import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
 import org.springframework.ai.chat.prompt.Prompt;
 import org.springframework.ai.model.Media;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.MimeTypeUtils;
 import org.springframework.web.multipart.MultipartFile;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 @Slf4j
 @Service
 public class AiService {
 
     // ✅ 프롬프트/리소스 방어용 상수
-    private static final int MAX_PROMPT_TEXT_LEN = 800;
     private static final int MAX_LIST_ITEMS = 50;
-    private static final long MAX_IMAGE_PIXELS = 4096L * 4096L; // DoS 완화용(약 16MP)
 
     private static final String FALLBACK_REPORT_MSG = "리포트 생성에 실패했습니다. 잠시 후 다시 시도해주세요.";
     private static final String FALLBACK_RECOMMEND_MSG = "추천 생성에 실패했습니다. 잠시 후 다시 시도해주세요.";
@@ -61,9 +62,30 @@ public class AiService {
     private final ChatClient visionClient;
     private final ChatClient reportClient;
     private final ChatModel chatModel;
-    private final MemberService memberService;
-    private final OptionService optionService;
-    private final HealthService healthService;
+    private final HealthProfileService healthProfileService;
+    private final FoodAnalysisCache foodAnalysisCache;
+    private final FoodImageIndex foodImageIndex;
+    private final FoodImageCompressor foodImageCompressor;
+    private final FoodCatalogResolver foodCatalogResolver;
+    private final FoodAnalysisParser foodAnalysisParser;
+    private final PromptTemplateEngine promptTemplates;
+    private final AiCallGuard aiCallGuard;
+    private final AiMetrics aiMetrics;
+    private final DietScoreCalculator dietScoreCalculator;
+    private final ReportSingleFlight reportSingleFlight;
+    private final boolean dietScoreLlmRefine;
+    private final Clock clock;
+
+    // LLM 보정 허용 폭 (규칙 기반 점수 ± N점)
+    private static final int DIET_SCORE_REFINE_RANGE = 10;
+
+    // 리포트 준비 결과: prompt 가 null 이면 LLM 호출 없이 message(캐시/안내 문구)를 그대로 사용
+    private record ReportDraft(Double avgScore, List<Integer> scores, String message,
+                               String prompt) {
+        static ReportDraft done(Double avgScore, List<Integer> scores, String message) {
+            return new ReportDraft(avgScore, scores, message, null);
+        }
+    }
 
     public AiService(ObjectMapper objectMapper,
                      ReportDao reportDao,
@@ -71,9 +93,19 @@ public class AiService {
                      ChatModel chatModel,
                      @Qualifier("visionChatClient") ChatClient visionClient,
                      @Qualifier("reportChatClient") ChatClient reportClient,
-                     MemberService memberService,
-                     OptionService optionService,
-                     HealthService healthService
+                     HealthProfileService healthProfileService,
+                     FoodAnalysisCache foodAnalysisCache,
+                     FoodImageIndex foodImageIndex,
+                     FoodImageCompressor foodImageCompressor,
+                     FoodCatalogResolver foodCatalogResolver,
+                     FoodAnalysisParser foodAnalysisParser,
+                     PromptTemplateEngine promptTemplates,
+                     AiCallGuard aiCallGuard,
+                     AiMetrics aiMetrics,
+                     DietScoreCalculator dietScoreCalculator,
+                     ReportSingleFlight reportSingleFlight,
+                     @Value("${app.ai.diet-score.llm-refine:false}") boolean dietScoreLlmRefine,
+                     Clock clock
     ) {
         this.objectMapper = objectMapper;
         this.reportDao = reportDao;
@@ -81,121 +113,267 @@ public class AiService {
         this.visionClient = visionClient;
         this.reportClient = reportClient;
         this.chatModel = chatModel;
-        this.memberService = memberService;
-        this.optionService = optionService;
-        this.healthService = healthService;
+        this.healthProfileService = healthProfileService;
+        this.foodAnalysisCache = foodAnalysisCache;
+        this.foodImageIndex = foodImageIndex;
+        this.foodImageCompressor = foodImageCompressor;
+        this.foodCatalogResolver = foodCatalogResolver;
+        this.foodAnalysisParser = foodAnalysisParser;
+        this.promptTemplates = promptTemplates;
+        this.aiCallGuard = aiCallGuard;
+        this.aiMetrics = aiMetrics;
+        this.dietScoreCalculator = dietScoreCalculator;
+        this.reportSingleFlight = reportSingleFlight;
+        this.dietScoreLlmRefine = dietScoreLlmRefine;
+        this.clock = clock;
     }
 
     // -----------------------------
     // ✅ 공통 방어 유틸
     // -----------------------------
-    private String sanitizeForPrompt(String input) {
-        if (input == null) {
-            return "";
+    // 건강 프로필 공통 변수 (템플릿에 있는 것만 채움)
+    private PromptTemplate.Values withProfile(PromptTemplate template, HealthProfileSnapshot p) {
+        PromptTemplate.Values values = template.with();
+        putIfPresent(template, values, "age", p.age());
+        putIfPresent(template, values, "gender", p.genderLabel());
+        putIfPresent(template, values, "height", p.height());
+        putIfPresent(template, values, "weight", p.weight());
+        putIfPresent(template, values, "activity", p.activityLabel());
+        putIfPresent(template, values, "goal", p.goalLabel());
+        putIfPresent(template, values, "disease", p.diseaseLabel());
+        putIfPresent(template, values, "allergy", p.allergyLabel());
+        putIfPresent(template, values, "recKcal", Math.round(p.recCalories()));
+        putIfPresent(template, values, "recCarbs", Math.round(p.recCarbs()));
+        putIfPresent(template, values, "recProtein", Math.round(p.recProtein()));
+        putIfPresent(template, values, "recFat", Math.round(p.recFat()));
+        return values;
+    }
+
+    private static void putIfPresent(PromptTemplate template, PromptTemplate.Values values,
+                                     String key, Object value) {
+        if (template.has(key)) {
+            values.put(key, value);
         }
-        String s = input.replaceAll("\\p{Cntrl}", " ").trim();
-        if (s.length() > MAX_PROMPT_TEXT_LEN) {
-            s = s.substring(0, MAX_PROMPT_TEXT_LEN) + "...";
+    }
+
+    /**
+     * 모델 호출 + 지표 기록 (지연시간/결과, 토큰/비용). 예외는 그대로 던짐
+     */
+    private String callModel(String purpose, AiModel model, Supplier<ChatResponse> supplier) {
+        long start = System.nanoTime();
+        try {
+            ChatResponse response = aiCallGuard.call(purpose, model, supplier);
+            aiMetrics.recordUsage(purpose, model, response);
+            String text = AiMetrics.textOf(response);
+            aiMetrics.recordCall(purpose, model,
+                    (text == null || text.isBlank()) ? AiMetrics.EMPTY : AiMetrics.SUCCESS,
+                    System.nanoTime() - start);
+            return text;
+        } catch (AiCallRejectedException e) {
+            aiMetrics.recordCall(purpose, model, AiMetrics.REJECTED, System.nanoTime() - start);
+            throw e;
+        } catch (AiCallTimeoutException e) {
+            aiMetrics.recordCall(purpose, model, AiMetrics.TIMEOUT, System.nanoTime() - start);
+            throw e;
+        } catch (RuntimeException e) {
+            aiMetrics.recordCall(purpose, model, AiMetrics.ERROR, System.nanoTime() - start);
+            throw e;
         }
-        // 아주 단순한 인젝션 완화(완벽 X)
-        s = s.replaceAll("(?i)ignore (all|previous) instructions", "[filtered]");
-        s = s.replaceAll("(?i)system prompt", "[filtered]");
-        s = s.replaceAll("(?i)developer message", "[filtered]");
-        return s;
     }
 
-    private String safeAiCall(String purpose, Supplier<String> supplier, String fallback) {
+    private String safeAiCall(String purpose, AiModel model, Supplier<ChatResponse> supplier,
+                              String fallback) {
         try {
-            String res = supplier.get();
+            String res = callModel(purpose, model, supplier);
             if (res == null || res.isBlank()) {
+                aiMetrics.recordFallback(purpose, model);
                 return fallback;
             }
             return res;
+        } catch (AiCallRejectedException | AiCallTimeoutException e) {
+            log.warn("AI call skipped. purpose={}, reason={}", purpose, e.getMessage());
+            aiMetrics.recordFallback(purpose, model);
+            return fallback;
         } catch (Exception e) {
             log.error("AI call failed. purpose={}, err={}", purpose, e.getMessage(), e);
+            aiMetrics.recordFallback(purpose, model);
             return fallback;
         }
     }
 
+    /**
+     * 스트리밍 호출: 토큰 조각을 그대로 흘려보내고, 완료 시 전체 메시지를 onComplete 로 전달
+     * - 실패/빈 응답이면 fallback 문구를 내보내고 onComplete 에도 fallback 전달
+     * - onComplete(DB 저장)는 blocking 이므로 boundedElastic 에서 실행
+     * - Circuit Breaker/Bulkhead/타임아웃은 AiCallGuard 가 구독 시점에 적용
+     */
+    private Flux<String> streamAiCall(String purpose, AiModel model, ChatClient client,
+                                      String prompt, String fallback,
+                                      Consumer<String> onComplete) {
+        StringBuilder buffer = new StringBuilder();
+        AtomicBoolean failed = new AtomicBoolean(false);
+        AtomicLong start = new AtomicLong();
+
+        return aiCallGuard.stream(purpose, model,
+                        () -> client.prompt().user(prompt).stream().chatResponse())
+                .doOnSubscribe(s -> start.set(System.nanoTime()))
+                // usage 는 보통 마지막 청크에만 실림 (streamUsage 옵션)
+                .doOnNext(response -> aiMetrics.recordUsage(purpose, model, response))
+                .map(response -> {
+                    String chunk = AiMetrics.textOf(response);
+                    return (chunk == null) ? "" : chunk;
+                })
+                .filter(chunk -> !chunk.isEmpty())
+                .doOnNext(buffer::append)
+                .doOnComplete(() -> aiMetrics.recordCall(purpose, model,
+                        buffer.length() == 0 ? AiMetrics.EMPTY : AiMetrics.SUCCESS,
+                        System.nanoTime() - start.get()))
+                .switchIfEmpty(Flux.defer(() -> {
+                    failed.set(true);
+                    aiMetrics.recordFallback(purpose, model);
+                    return Flux.just(fallback);
+                }))
+                .onErrorResume(e -> {
+                    log.error("AI stream failed. purpose={}, err={}", purpose, e.getMessage(), e);
+                    aiMetrics.recordCall(purpose, model, outcomeOf(e), System.nanoTime() - start.get());
+                    aiMetrics.recordFallback(purpose, model);
+                    failed.set(true);
+                    return Flux.just(fallback);
+                })
+                .concatWith(Mono.<String>fromRunnable(() ->
+                                onComplete.accept(failed.get() ? fallback : buffer.toString()))
+                        .subscribeOn(Schedulers.boundedElastic()));
+    }
+
+    private String outcomeOf(Throwable e) {
+        if (e instanceof AiCallRejectedException) {
+            return AiMetrics.REJECTED;
+        }
+        if (e instanceof AiCallTimeoutException || e instanceof TimeoutException) {
+            return AiMetrics.TIMEOUT;
+        }
+        return AiMetrics.ERROR;
+    }
+
     /**
      * 1. 음식 분석
      * - content-type 검사
      * - 이미지 픽셀 상한 검사
-     * - 예외 시 fallback JSON
+     * - 압축 이미지 + 힌트 기준 캐시 적중 시 LLM 호출 생략
+     * - 각도만 살짝 다른 재촬영(dHash 근사 일치)도 기존 결과 재사용
+     * - 예외 시 FoodAnalysisResult.fallback()
      */
-    public String analyzeFood(MultipartFile file, String foodName) {
-        String fallbackJson = createDefaultJson();
+    public FoodAnalysisResult analyzeFood(MultipartFile file, String foodName) {
+        if (file == null || file.isEmpty()) {
+            return analyzeFood(null, null, foodName);
+        }
+        try {
+            return analyzeFood(file.getBytes(), file.getContentType(), foodName);
+        } catch (IOException e) {
+            log.error("AI analyzeFood read failed: {}", e.getMessage(), e);
+            return FoodAnalysisResult.fallback();
+        }
+    }
+
+    /**
+     * 1-1. 음식 분석 (이미 메모리에 읽어 둔 이미지 바이트)
+     * - S3 업로드와 같은 버퍼를 공유해 multipart 스트림을 한 번만 읽도록 함
+     */
+    public FoodAnalysisResult analyzeFood(byte[] image, String contentType, String foodName) {
+        FoodAnalysisResult fallback = FoodAnalysisResult.fallback();
 
         try {
+            boolean hasImage = image != null && image.length > 0;
+
             // ✅ 이미지 파일 여부 1차 검사
-            if (file != null && !file.isEmpty()) {
-                String ct = file.getContentType();
-                if (ct == null || !ct.startsWith("image/")) {
-                    return fallbackJson;
-                }
+            if (hasImage && (contentType == null || !contentType.startsWith("image/"))) {
+                return fallback;
             }
 
             String userHint = "";
+            String cacheHint = "";
             if (foodName != null && !foodName.isBlank()) {
                 boolean isGarbage =
                         foodName.matches("^[0-9\\s!@#$%^&*()_+\\-=\\[\\]{};':\"\\\\|,.<>/?`~]+$");
                 if (!isGarbage) {
-                    userHint = " (사용자가 제공한 힌트: '" + sanitizeForPrompt(foodName)
+                    userHint = " (사용자가 제공한 힌트: '" + PromptSanitizer.sanitize(foodName)
                             + "'. 단, 이 힌트가 사진과 명확히 다르다면 무시하세요.)";
+                    cacheHint = foodName;
                 }
             }
 
-            String systemInstruction = """
-                    당신은 전문 영양사입니다. 음식 사진을 분석하여 영양 정보를 추정하세요.
-                    
-                    [분석 규칙]
-                    1. 사용자의 힌트가 있더라도, 사진 속 음식과 다르면 사진을 최우선으로 분석하세요.
-                    2. 음식 이름은 반드시 한국인이 흔히 쓰는 한글 명칭으로 작성하세요.
-                    3. 응답은 오직 아래 JSON 포맷으로만 작성하세요. 마크다운이나 잡담 금지.
-                    
-                    [JSON 응답 예시]
-                    {
-                        "foodName": "김치찌개",
-                        "kcal": 450,
-                        "carbs": 20.5,
-                        "protein": 15.0,
-                        "fat": 10.2,
-                        "score": 85,
-                        "aiAnalysis": "단백질이 풍부하지만 나트륨이 조금 많아 보입니다."
-                    }
-                    """;
+            if (!hasImage && userHint.isBlank()) {
+                return fallback;
+            }
+
+            // ✅ 동일 이미지(압축 결과 기준) + 동일 힌트면 캐시 결과 반환
+            FoodImageCompressor.Compressed compressed = null;
+            if (hasImage) {
+                aiMetrics.recordImageBytes("original", image.length);
+                compressed = foodImageCompressor.compress(image);
+                aiMetrics.recordImageBytes("compressed", compressed.jpeg().length);
+            }
+            String cacheKey = foodAnalysisCache.keyOf(
+                    compressed != null ? compressed.jpeg() : null, cacheHint);
+            String cachedJson = foodAnalysisCache.get(cacheKey);
+            if (cachedJson != null) {
+                return foodAnalysisParser.parse(cachedJson);
+            }
+
+            // ✅ 사진 없이 음식명만 있으면 식품 DB 먼저 조회 (적중 시 LLM 호출 생략)
+            if (!hasImage) {
+                FoodAnalysisResult catalogResult = foodCatalogResolver.resolve(cacheHint);
+                if (catalogResult != null) {
+                    foodAnalysisCache.put(cacheKey, foodAnalysisParser.toJson(catalogResult));
+                    return catalogResult;
+                }
+            }
+            if (compressed != null) {
+                String nearJson = foodImageIndex.findNear(compressed.dHash(), cacheHint);
+                if (nearJson != null) {
+                    return foodAnalysisParser.parse(nearJson);
+                }
+            }
 
             String aiResponseRaw;
 
-            if (file != null && !file.isEmpty()) {
-                byte[] compressedImage = compressImage(file);
-                Resource imageResource = new ByteArrayResource(compressedImage);
+            if (hasImage) {
+                Resource imageResource = new ByteArrayResource(compressed.jpeg());
 
-                String promptText = "이 음식 사진을 분석해줘." + userHint + "\n" + systemInstruction;
+                String promptText = promptTemplates.get("food-analysis").with()
+                        .put("request", "이 음식 사진을 분석해줘." + userHint)
+                        .render();
                 var userMessage = new UserMessage(
                         promptText,
                         List.of(new Media(MimeTypeUtils.IMAGE_JPEG, imageResource))
                 );
 
-                aiResponseRaw =
-                        chatModel.call(new Prompt(userMessage)).getResult().getOutput().getText();
+                aiResponseRaw = callModel("analyzeFood", AiModel.VISION,
+                        () -> chatModel.call(new Prompt(userMessage)));
             } else {
-                if (userHint.isBlank()) {
-                    return fallbackJson;
-                }
-                String promptText =
-                        "음식 사진은 없어." + userHint + " 일반적인 1인분 기준으로 분석해줘.\n" + systemInstruction;
-                aiResponseRaw =
-                        chatModel.call(new Prompt(promptText)).getResult().getOutput().getText();
+                String promptText = promptTemplates.get("food-analysis").with()
+                        .put("request", "음식 사진은 없어." + userHint + " 일반적인 1인분 기준으로 분석해줘.")
+                        .render();
+                aiResponseRaw = callModel("analyzeFood", AiModel.VISION,
+                        () -> chatModel.call(new Prompt(promptText)));
             }
 
-            String cleanJson = cleanJsonOutput(aiResponseRaw);
-            objectMapper.readTree(cleanJson);
-            return cleanJson;
+            // ✅ 펜스/잡담 허용 단일 패스 파싱 -> 캐시에는 정규화 JSON 저장
+            FoodAnalysisResult result = foodAnalysisParser.parse(aiResponseRaw);
+            foodAnalysisCache.put(cacheKey, foodAnalysisParser.toJson(result));
+            if (compressed != null) {
+                foodImageIndex.add(cacheKey, compressed.dHash(), cacheHint);
+            }
+            return result;
 
+        } catch (AiCallRejectedException | AiCallTimeoutException e) {
+            log.warn("AI analyzeFood skipped: {}", e.getMessage());
+            aiMetrics.recordFallback("analyzeFood", AiModel.VISION);
+            return fallback;
         } catch (Exception e) {
             log.error("AI analyzeFood failed: {}", e.getMessage(), e);
-            return fallbackJson;
+            aiMetrics.recordFallback("analyzeFood", AiModel.VISION);
+            return fallback;
         }
     }
 
@@ -210,78 +388,27 @@ public class AiService {
                 .trim();
     }
 
-    private String createDefaultJson() {
-        ObjectNode root = objectMapper.createObjectNode();
-        root.put("foodName", "분석 실패 (직접 입력해주세요)");
-        root.put("kcal", 0);
-        root.put("carbs", 0.0);
-        root.put("protein", 0.0);
-        root.put("fat", 0.0);
-        root.put("score", 0);
-        root.put("aiAnalysis", "죄송합니다. 음식 분석에 실패했습니다.");
-        return root.toString();
-    }
-
-    private byte[] compressImage(MultipartFile file) throws IOException {
-        BufferedImage originalImage = ImageIO.read(file.getInputStream());
-        if (originalImage == null) {
-            throw new IllegalArgumentException("이미지 파일이 아닙니다.");
-        }
-
-        // ✅ 픽셀 수 상한 (초고해상도 DoS 완화)
-        long pixels = (long) originalImage.getWidth() * (long) originalImage.getHeight();
-        if (pixels > MAX_IMAGE_PIXELS) {
-            throw new IllegalArgumentException("이미지 해상도가 너무 큽니다.");
-        }
-
-        int targetWidth = 512;
-        int originalWidth = originalImage.getWidth();
-        int originalHeight = originalImage.getHeight();
-
-        if (originalWidth <= targetWidth) {
-            targetWidth = originalWidth;
-        }
-        int targetHeight = (int) ((double) targetWidth / originalWidth * originalHeight);
-
-        BufferedImage resizedImage =
-                new BufferedImage(targetWidth, targetHeight, BufferedImage.TYPE_INT_RGB);
-        Graphics2D g = resizedImage.createGraphics();
-        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
-                RenderingHints.VALUE_INTERPOLATION_BILINEAR);
-        g.drawImage(originalImage, 0, 0, targetWidth, targetHeight, null);
-        g.dispose();
-
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        ImageIO.write(resizedImage, "jpg", outputStream);
-        return outputStream.toByteArray();
-    }
-
     // 2) 다음 끼니 추천 (✅ 500 방지 + 토큰 방어)
     public String recommendNextMeal(Long userId) {
-        // 1. 기본 회원 정보(+질병/알러지) 조회
-        MemberDto member = memberService.getMember(userId); // 신체, 질환, 알레르기 포함
-        MemberGoalDto metrics = healthService.calculateHealthMetrics(member); // 권장 섭취량
-
-        String diseaseLabel = optionService.diseaseNames(member.getDiseaseIds());
-        String allergyLabel = optionService.allergyNames(member.getAllergyIds());
-        String gender = "M".equalsIgnoreCase(member.getGender()) ? "남성" : "여성";
-
-        // 아래 두 변수는 Double일 수 있으니 주의! (Double → int: NullPointer 방지)
-        int age = (member.getBirthYear() == null) ? 0 :
-                LocalDate.now().getYear() - member.getBirthYear();
-        int height = (member.getHeight() == null) ? 0 : (int) Math.round(member.getHeight());
-        int weight = (member.getWeight() == null) ? 0 : (int) Math.round(member.getWeight());
+        String finalPrompt = buildNextMealPrompt(userId);
+        return safeAiCall("recommendNextMeal", AiModel.VISION,
+                () -> visionClient.prompt().user(finalPrompt).call().chatResponse(),
+                FALLBACK_RECOMMEND_MSG);
+    }
 
-        String activityLabel = activityLevelKor(member.getActivityLevel());
-        String goalLabel = dietGoalKor(member.getDietGoal());
+    // 2-1) 다음 끼니 추천 (SSE 스트리밍)
+    public Flux<String> streamNextMeal(Long userId) {
+        return streamAiCall("recommendNextMeal", AiModel.VISION, visionClient, buildNextMealPrompt(userId),
+                FALLBACK_RECOMMEND_MSG, message -> {
+                });
+    }
 
-        long recKcal = Math.round(metrics.getRecCalories());
-        long recCarbs = Math.round(metrics.getRecCarbs());
-        long recProtein = Math.round(metrics.getRecProtein());
-        long recFat = Math.round(metrics.getRecFat());
+    private String buildNextMealPrompt(Long userId) {
+        // 1. 건강 프로필 스냅샷 (신체, 질환, 알레르기, 권장 섭취량 / 캐시)
+        HealthProfileSnapshot p = healthProfileService.getSnapshot(userId);
 
         // 2. 오늘 식단 기록 불러오기 (기존 로직 유지)
-        String today = LocalDate.now().toString();
+        String today = LocalDate.now(clock).toString();
         List<DietDto> logs = dietDao.selectDailyDiets(userId, today);
 
         StringBuilder foodHistory = new StringBuilder();
@@ -292,77 +419,80 @@ public class AiService {
                 String menuName =
                         (log.getMemo() != null && !log.getMemo().isEmpty()) ? log.getMemo() :
                                 log.getMealType();
-                menuName = sanitizeForPrompt(menuName);
+                menuName = PromptSanitizer.sanitize(menuName);
                 double kcal = (log.getTotalKcal() != null) ? log.getTotalKcal() : 0.0;
                 foodHistory.append(menuName).append("(").append((int) Math.round(kcal))
                         .append("kcal), ");
             }
         }
 
-        // 3. 디테일 프롬프트 구성
-        String prompt = String.format(
-                "내 신체정보는 %d세 %s(키 %dcm, 몸무게 %dkg), 활동량 %s, 식이목표: %s, 질환: %s, 알레르기: %s야. "
-                        + "1일 권장 섭취량은 %d kcal(탄수 %d g, 단백 %d g, 지방 %d g)이야. ",
-                age, gender, height, weight,
-                activityLabel, goalLabel, diseaseLabel, allergyLabel,
-                recKcal, recCarbs, recProtein, recFat
-        );
-
+        // 3. 디테일 프롬프트 구성 (메뉴명은 위에서 항목별로 정리됨)
         if (foodHistory.length() == 0) {
-            prompt += "오늘 식사 이력이 없어. 내 건강 상태를 반영해서 다음 끼니로 가볍고 건강한 메뉴 3가지를 (질환/알러지 유의하여) 추천해줘.";
-        } else {
-            prompt += "오늘 먹은 음식: " + foodHistory +
-                    "부족할 수 있는 영양소와 내 몸 상태(질환/알레르기/신체)를 종합해 다음 끼니 메뉴 3가지(가능하면 한식 위주로, 금지성분은 반드시 빼고) 추천해줘.";
+            return withProfile(promptTemplates.get("next-meal-empty", userId), p).render();
         }
+        return withProfile(promptTemplates.get("next-meal", userId), p)
+                .put("foodHistory", foodHistory)
+                .render();
+    }
 
-        String finalPrompt = sanitizeForPrompt(prompt);
-        return safeAiCall("recommendNextMeal",
-                () -> visionClient.prompt().user(finalPrompt).call().content(),
-                FALLBACK_RECOMMEND_MSG);
+    // 3) 일간 리포트 (✅ 500 방지)
+    // - 같은 (userId, DAILY, day) 동시 요청은 LLM 호출/INSERT 1회로 합침
+    // - @Transactional 없음: LLM 대기 동안 DB 커넥션을 잡지 않고, 다른 노드의 INSERT 도 바로 보이도록
+    public AiReportResponse getDailyReport(Long userId, String date) {
+        String day = (date == null) ? LocalDate.now(clock).toString() : date;
+
+        return reportSingleFlight.execute(
+                ReportSingleFlight.keyOf(userId, "DAILY", day, day),
+                () -> generateDailyReport(userId, day),
+                () -> reportDao.selectExistingReport(userId, "DAILY", day, day) != null);
     }
 
-    // 한글 변환 예시 메서드 (실 프로젝트 용어에 맞게)
-    private String activityLevelKor(String level) {
-        if ("LOW".equals(level)) {
-            return "낮음";
-        }
-        if ("NORMAL".equals(level)) {
-            return "보통";
-        }
-        if ("HIGH".equals(level)) {
-            return "높음";
+    private AiReportResponse generateDailyReport(Long userId, String day) {
+        List<DietDto> dailyLogs = dietDao.selectDailyDiets(userId, day);
+        ReportDraft draft = prepareDailyReport(userId, day, dailyLogs);
+
+        String aiMessage = draft.message();
+        if (draft.prompt() != null) {
+            aiMessage = safeAiCall("dailyReport", AiModel.VISION,
+                    () -> visionClient.prompt().user(draft.prompt()).call().chatResponse(),
+                    FALLBACK_REPORT_MSG);
+            saveReportLog(userId, "DAILY", day, day, draft.avgScore(), aiMessage);
         }
-        return "미상";
+
+        return AiReportResponse.builder()
+                .type("DAILY")
+                .dateRange(day)
+                .dailyMeals(dailyLogs)
+                .averageScore(draft.avgScore()) // 👈 캐시 적중 시에는 캐시 점수
+                .aiAnalysis(aiMessage)
+                .build();
     }
 
-    private String dietGoalKor(String goal) {
-        if ("LOSS".equals(goal)) {
-            return "감량";
-        }
-        if ("GAIN".equals(goal)) {
-            return "증량";
-        }
-        return "유지";
+    // 3-1) 일간 리포트 (SSE 스트리밍, 완료 시 report_log 저장)
+    // - 동기 조회와 같은 single-flight 키: 뒤따르는 요청은 저장된 결과를 한 청크로 받음
+    public Flux<String> streamDailyReport(Long userId, String date) {
+        String day = (date == null) ? LocalDate.now(clock).toString() : date;
+
+        return reportSingleFlight.stream(
+                ReportSingleFlight.keyOf(userId, "DAILY", day, day),
+                () -> generateDailyReportStream(userId, day),
+                () -> reportDao.selectExistingReport(userId, "DAILY", day, day) != null);
     }
 
-    // 3) 일간 리포트 (✅ 500 방지)
-    @Transactional
-    public AiReportResponse getDailyReport(Long userId, String date) {
-        if (date == null) {
-            date = LocalDate.now().toString();
+    private Flux<String> generateDailyReportStream(Long userId, String day) {
+        List<DietDto> dailyLogs = dietDao.selectDailyDiets(userId, day);
+        ReportDraft draft = prepareDailyReport(userId, day, dailyLogs);
+        if (draft.prompt() == null) {
+            return Flux.just(draft.message());
         }
+        return streamAiCall("dailyReport", AiModel.VISION, visionClient, draft.prompt(), FALLBACK_REPORT_MSG,
+                message -> saveReportLog(userId, "DAILY", day, day, draft.avgScore(), message));
+    }
 
-        List<DietDto> dailyLogs = dietDao.selectDailyDiets(userId, date);
+    private ReportDraft prepareDailyReport(Long userId, String date, List<DietDto> dailyLogs) {
         ReportLogDto cachedLog = reportDao.selectExistingReport(userId, "DAILY", date, date);
-
         if (cachedLog != null) {
-            return AiReportResponse.builder()
-                    .type("DAILY")
-                    .dateRange(date)
-                    .dailyMeals(dailyLogs)
-                    .averageScore(cachedLog.getScoreAverage()) // 👈 이 부분이 핵심 (캐시 점수 반환)
-                    .aiAnalysis(cachedLog.getAiMessage())
-                    .build();
+            return ReportDraft.done(cachedLog.getScoreAverage(), null, cachedLog.getAiMessage());
         }
 
         List<Integer> scores = (dailyLogs == null ? new ArrayList<DietDto>() : dailyLogs).stream()
@@ -373,90 +503,114 @@ public class AiService {
         double avgScore = scores.stream().mapToInt(Integer::intValue).average().orElse(0.0);
         avgScore = Math.round(avgScore * 10) / 10.0;
 
-        String aiMessage;
         if (dailyLogs == null || dailyLogs.isEmpty()) {
-            aiMessage = "기록된 식단이 없습니다. 오늘의 식사를 기록해보세요!";
-        } else {
-            // ===== 1. 개인 건강 정보 준비 =====
-            MemberDto member = memberService.getMember(userId);
-            MemberGoalDto goal = healthService.calculateHealthMetrics(member);
-
-            String diseaseLabel = optionService.diseaseNames(member.getDiseaseIds());
-            String allergyLabel = optionService.allergyNames(member.getAllergyIds());
-            String gender = "M".equalsIgnoreCase(member.getGender()) ? "남성" : "여성";
-            int age = LocalDate.now().getYear() - member.getBirthYear();
-            int height = member.getHeight() != null ? member.getHeight().intValue() : 0;
-            int weight = member.getWeight() != null ? member.getWeight().intValue() : 0;
-            String activityLabel = activityLevelKor(member.getActivityLevel());
-            String goalLabel = dietGoalKor(member.getDietGoal());
-
-            long recKcal = Math.round(goal.getRecCalories());
-            long recCarbs = Math.round(goal.getRecCarbs());
-            long recProtein = Math.round(goal.getRecProtein());
-            long recFat = Math.round(goal.getRecFat());
-
-            // ===== 2. 오늘 먹은 음식/칼로리 등 기존 요약 =====
-            StringBuilder sb = new StringBuilder("오늘 먹은 식사 내역:\n");
-            double totalKcal = 0;
-            int limit = Math.min(dailyLogs.size(), MAX_LIST_ITEMS);
-            for (int i = 0; i < limit; i++) {
-                DietDto d = dailyLogs.get(i);
-                String menuName = (d.getMemo() != null && !d.getMemo().isEmpty()) ? d.getMemo() :
-                        d.getMealType();
-                menuName = sanitizeForPrompt(menuName);
-                double kcal = (d.getTotalKcal() != null) ? d.getTotalKcal() : 0.0;
-                sb.append("- ").append(menuName).append(" (").append((int) Math.round(kcal))
-                        .append("kcal)\n");
-                totalKcal += kcal;
-            }
+            return ReportDraft.done(avgScore, scores, "기록된 식단이 없습니다. 오늘의 식사를 기록해보세요!");
+        }
 
-            // ===== 3. 디테일 프롬프트 세팅 =====
-            String prompt = String.format(
-                    "내 신체정보는 %d세 %s(키 %dcm, 몸무게 %dkg), 활동량 %s, 목표: %s, 질환: %s, 알레르기: %s.\n" +
-                            "1일 권장 섭취: %d kcal (탄수 %d g, 단백 %d g, 지방 %d g).\n\n" +
-                            "%s\n" +
-                            "총 섭취 칼로리: %d kcal.\n" +
-                            "오늘 내 식단을 건강/균형/질병 및 알레르기 관점에서 분석해서, 부족 or 과한 영양소와 유의사항, 건강 개선 TIP을 각각 한 문장씩(총 3문장) 조언해줘. (의학/영양사 관점으로 현실적으로.)",
-                    age, gender, height, weight, activityLabel, goalLabel, diseaseLabel,
-                    allergyLabel,
-                    recKcal, recCarbs, recProtein, recFat,
-                    sb, (int) Math.round(totalKcal)
-            );
-
-            aiMessage = safeAiCall("dailyReport",
-                    () -> visionClient.prompt().user(sanitizeForPrompt(prompt)).call().content(),
-                    FALLBACK_REPORT_MSG);
+        // ===== 1. 개인 건강 정보 준비 (스냅샷 캐시) =====
+        HealthProfileSnapshot p = healthProfileService.getSnapshot(userId);
+
+        // ===== 2. 오늘 먹은 음식/칼로리 등 기존 요약 =====
+        StringBuilder sb = new StringBuilder("오늘 먹은 식사 내역:\n");
+        double totalKcal = 0;
+        int limit = Math.min(dailyLogs.size(), MAX_LIST_ITEMS);
+        for (int i = 0; i < limit; i++) {
+            DietDto d = dailyLogs.get(i);
+            String menuName = (d.getMemo() != null && !d.getMemo().isEmpty()) ? d.getMemo() :
+                    d.getMealType();
+            menuName = PromptSanitizer.sanitize(menuName);
+            double kcal = (d.getTotalKcal() != null) ? d.getTotalKcal() : 0.0;
+            sb.append("- ").append(menuName).append(" (").append((int) Math.round(kcal))
+                    .append("kcal)\n");
+            totalKcal += kcal;
         }
 
-        if (dailyLogs != null && !dailyLogs.isEmpty()) {
-            reportDao.insertReportLog(ReportLogDto.builder()
-                    .userId(userId).reportType("DAILY").startDate(date).endDate(date)
-                    .scoreAverage(avgScore).aiMessage(aiMessage).build());
+        // ===== 3. 디테일 프롬프트 세팅 =====
+        String prompt = withProfile(promptTemplates.get("daily-report", userId), p)
+                .put("meals", sb)
+                .put("totalKcal", (int) Math.round(totalKcal))
+                .render();
+
+        return new ReportDraft(avgScore, scores, null, prompt);
+    }
+
+    // 4) 주간/월간 리포트: 일간과 동일하게 single-flight, 트랜잭션 없음
+    public AiReportResponse getPeriodReport(Long userId, String type) {
+        return getPeriodReport(userId, type, LocalDate.now(clock));
+    }
+
+    // 기간 끝 날짜 지정 (야간 배치는 실행 날짜를 넘겨 화면 요청과 같은 report_log 키로 저장)
+    public AiReportResponse getPeriodReport(Long userId, String type, LocalDate end) {
+        LocalDate start = type.equals("WEEKLY") ? end.minusWeeks(1) : end.minusMonths(1);
+        String sDate = start.toString();
+        String eDate = end.toString();
+
+        return reportSingleFlight.execute(
+                ReportSingleFlight.keyOf(userId, type, sDate, eDate),
+                () -> generatePeriodReport(userId, type, sDate, eDate),
+                () -> {
+                    ReportLogDto saved = reportDao.selectExistingReport(userId, type, sDate, eDate);
+                    return saved != null && !isFallbackMessage(saved.getAiMessage());
+                });
+    }
+
+    private AiReportResponse generatePeriodReport(Long userId, String type, String sDate,
+                                                  String eDate) {
+        ReportDraft draft = preparePeriodReport(userId, type, sDate, eDate);
+
+        String aiMessage = draft.message();
+        if (draft.prompt() != null) {
+            aiMessage = safeAiCall("periodReport", AiModel.REPORT,
+                    () -> reportClient.prompt().user(draft.prompt()).call().chatResponse(),
+                    FALLBACK_REPORT_MSG);
+
+            if (!isFallbackMessage(aiMessage)) {
+                saveReportLog(userId, type, sDate, eDate, draft.avgScore(), aiMessage);
+            }
         }
 
         return AiReportResponse.builder()
-                .type("DAILY")
-                .dateRange(date)
-                .dailyMeals(dailyLogs)
-                .averageScore(avgScore) // 👈 이 부분이 누락되었는지 확인하세요.
-                .aiAnalysis(aiMessage)
+                .type(type).dateRange(sDate + " ~ " + eDate)
+                .averageScore(draft.avgScore()).scoreTrend(draft.scores()).aiAnalysis(aiMessage)
                 .build();
     }
 
-    @Transactional
-    public AiReportResponse getPeriodReport(Long userId, String type) {
-        LocalDate end = LocalDate.now();
+    // 4-1) 주간/월간 리포트 (SSE 스트리밍, 완료 시 report_log 저장, 동기 조회와 같은 single-flight 키)
+    public Flux<String> streamPeriodReport(Long userId, String type) {
+        LocalDate end = LocalDate.now(clock);
         LocalDate start = type.equals("WEEKLY") ? end.minusWeeks(1) : end.minusMonths(1);
         String sDate = start.toString();
         String eDate = end.toString();
 
+        return reportSingleFlight.stream(
+                ReportSingleFlight.keyOf(userId, type, sDate, eDate),
+                () -> generatePeriodReportStream(userId, type, sDate, eDate),
+                () -> {
+                    ReportLogDto saved = reportDao.selectExistingReport(userId, type, sDate, eDate);
+                    return saved != null && !isFallbackMessage(saved.getAiMessage());
+                });
+    }
+
+    private Flux<String> generatePeriodReportStream(Long userId, String type, String sDate,
+                                                    String eDate) {
+        ReportDraft draft = preparePeriodReport(userId, type, sDate, eDate);
+        if (draft.prompt() == null) {
+            return Flux.just(draft.message());
+        }
+        return streamAiCall("periodReport", AiModel.REPORT, reportClient, draft.prompt(), FALLBACK_REPORT_MSG,
+                message -> {
+                    if (!isFallbackMessage(message)) {
+                        saveReportLog(userId, type, sDate, eDate, draft.avgScore(), message);
+                    }
+                });
+    }
+
+    private ReportDraft preparePeriodReport(Long userId, String type, String sDate,
+                                            String eDate) {
         ReportLogDto cachedLog = reportDao.selectExistingReport(userId, type, sDate, eDate);
 
         if (cachedLog != null && !isFallbackMessage(cachedLog.getAiMessage())) {
-            return AiReportResponse.builder()
-                    .type(type).dateRange(sDate + " ~ " + eDate)
-                    .averageScore(cachedLog.getScoreAverage())
-                    .aiAnalysis(cachedLog.getAiMessage()).build();
+            return ReportDraft.done(cachedLog.getScoreAverage(), null, cachedLog.getAiMessage());
         }
 
         List<DietDto> logs = dietDao.selectWeeklyDiets(userId, sDate, eDate);
@@ -469,14 +623,7 @@ public class AiService {
             String msg = type.equals("WEEKLY")
                     ? "최근 1주일간 기록이 없어 주간 분석을 생성할 수 없습니다. 식단을 기록해보세요!"
                     : "최근 1개월간 기록이 없어 월간 분석을 생성할 수 없습니다. 식단을 기록해보세요!";
-
-            return AiReportResponse.builder()
-                    .type(type)
-                    .dateRange(sDate + " ~ " + eDate)
-                    .averageScore(0.0)
-                    .scoreTrend(scores)
-                    .aiAnalysis(msg)
-                    .build();
+            return ReportDraft.done(0.0, scores, msg);
         }
 
         double avgScore = scores.stream().mapToInt(Integer::intValue).average().orElse(0.0);
@@ -484,23 +631,8 @@ public class AiService {
 
         String periodName = type.equals("WEEKLY") ? "지난 1주" : "지난 1달";
 
-        // ========== [추가] 내 신체/건강/권장치 정보 ==========
-        MemberDto member = memberService.getMember(userId);
-        MemberGoalDto goal = healthService.calculateHealthMetrics(member);
-
-        String diseaseLabel = optionService.diseaseNames(member.getDiseaseIds());
-        String allergyLabel = optionService.allergyNames(member.getAllergyIds());
-        String gender = "M".equalsIgnoreCase(member.getGender()) ? "남성" : "여성";
-        int age = LocalDate.now().getYear() - member.getBirthYear();
-        int height = member.getHeight() != null ? member.getHeight().intValue() : 0;
-        int weight = member.getWeight() != null ? member.getWeight().intValue() : 0;
-        String activityLabel = activityLevelKor(member.getActivityLevel());
-        String goalLabel = dietGoalKor(member.getDietGoal());
-
-        long recKcal = Math.round(goal.getRecCalories());
-        long recCarbs = Math.round(goal.getRecCarbs());
-        long recProtein = Math.round(goal.getRecProtein());
-        long recFat = Math.round(goal.getRecFat());
+        // ========== [추가] 내 신체/건강/권장치 정보 (스냅샷 캐시) ==========
+        HealthProfileSnapshot p = healthProfileService.getSnapshot(userId);
 
         // =========== [추가] 식사 총계/평균 등 통계 ===========
         int mealCount = logs.size();
@@ -509,56 +641,41 @@ public class AiService {
                         .sum();
         double avgKcal = mealCount == 0 ? 0 : Math.round(totalKcal / mealCount);
 
-        String prompt = String.format(
-                "내 신체: %d세 %s(키 %dcm, 몸무게 %dkg), 활동량 %s, 목표 %s, 질환: %s, 알레르기: %s.\n" +
-                        "1일 권장 섭취: %d kcal (탄수 %d g, 단백 %d g, 지방 %d g)\n" +
-                        "[입력]\n" +
-                        "%s 동안의 식사 횟수: %d, 총섭취 칼로리(합): %d kcal, 1회 평균 섭취: %d kcal\n" +
-                        "평균 식단 점수: %.1f\n" +
-                        "점수 리스트: %s\n\n" +
-                        "[미션]\n" +
-                        "%s간 내 '식사점수/영양/섭취패턴/나의 건강정보(질병·알러지 포함)'를 종합해,\n" +
-                        "- 내 식습관 강점 1~2개\n" +
-                        "- 영양상 부족/과잉/불균형 위험\n" +
-                        "- 질환/알러지 관점 주의점\n" +
-                        "- 실질적인 건강개선 팁/가이드 (식단 구성 힌트 포함)\n" +
-                        "위 내용을 총 8줄 이내, 현실적이고 구체적인 한국어로 써줘. 의학적 코멘트 환영, 과장/너무 일반적 금지.",
-                age, gender, height, weight, activityLabel, goalLabel, diseaseLabel, allergyLabel,
-                recKcal, recCarbs, recProtein, recFat,
-                periodName, mealCount, (int) Math.round(totalKcal), (int) avgKcal,
-                avgScore, scores.toString(),
-                periodName
-        );
-
-        String aiMessage = safeAiCall("periodReport",
-                () -> reportClient.prompt().user(sanitizeForPrompt(prompt)).call().content(),
-                FALLBACK_REPORT_MSG);
-
-        if (!isFallbackMessage(aiMessage)) {
-            reportDao.insertReportLog(ReportLogDto.builder()
-                    .userId(userId).reportType(type).startDate(sDate).endDate(eDate)
-                    .scoreAverage(avgScore).aiMessage(aiMessage).build());
-        }
+        String prompt = withProfile(promptTemplates.get("period-report", userId), p)
+                .put("periodName", periodName)
+                .put("mealCount", mealCount)
+                .put("totalKcal", (int) Math.round(totalKcal))
+                .put("avgKcal", (int) avgKcal)
+                .put("avgScore", avgScore)
+                .put("scores", scores)
+                .render();
 
-        return AiReportResponse.builder()
-                .type(type).dateRange(sDate + " ~ " + eDate)
-                .averageScore(avgScore).scoreTrend(scores).aiAnalysis(aiMessage).build();
+        return new ReportDraft(avgScore, scores, null, prompt);
+    }
+
+    // 락 대기 초과/Redis 장애로 두 곳에서 생성된 경우 대비: 저장 직전 한 번 더 확인
+    private void saveReportLog(Long userId, String type, String sDate, String eDate,
+                               Double avgScore, String aiMessage) {
+        ReportLogDto existing = reportDao.selectExistingReport(userId, type, sDate, eDate);
+        if (existing != null && !isFallbackMessage(existing.getAiMessage())) {
+            return;
+        }
+        reportDao.insertReportLog(ReportLogDto.builder()
+                .userId(userId).reportType(type).startDate(sDate).endDate(eDate)
+                .scoreAverage(avgScore).aiMessage(aiMessage).build());
     }
 
     // 5) 챌린지 추천 (✅ AI/파싱 실패 안전화)
     public List<ChallengePresetDto> recommendGroupChallenges(List<String> keywords) {
         String keywordStr =
-                (keywords == null || keywords.isEmpty()) ? "건강, 운동" :
-                        sanitizeForPrompt(String.join(", ", keywords));
+                (keywords == null || keywords.isEmpty()) ? "건강, 운동" : String.join(", ", keywords);
 
-        String prompt = """
-                주제: [%s]. 그룹 챌린지 주제 3가지를 추천해줘.
-                응답은 오직 JSON 배열 포맷으로만:
-                [{"title":"제목","content":"내용","goalType":"COUNT","targetCount":5,"keyword":"키워드"}]
-                """.formatted(keywordStr);
+        String prompt = promptTemplates.get("challenge-recommend").with()
+                .putUser("keywords", keywordStr)
+                .render();
 
-        String jsonResult = safeAiCall("recommendChallenges",
-                () -> visionClient.prompt().user(prompt).call().content(),
+        String jsonResult = safeAiCall("recommendChallenges", AiModel.VISION,
+                () -> visionClient.prompt().user(prompt).call().chatResponse(),
                 "[]");
 
         jsonResult = cleanJsonOutput(jsonResult);
@@ -574,9 +691,10 @@ public class AiService {
     }
 
     // 6) Gap Analysis (✅ 500 방지)
-    @Transactional
+    // - @Transactional 없음: 리포트 작업 워커가 LLM 응답을 기다리는 동안 DB 커넥션을 잡지 않도록
+    //   (통계 조회 -> 트랜잭션 밖에서 LLM 호출 -> INSERT 각각 자동 커밋)
     public GapReportDto getGapAnalysis(Long userId, Long groupId, String type) {
-        LocalDate end = LocalDate.now();
+        LocalDate end = LocalDate.now(clock);
         LocalDate start = "MONTHLY".equals(type) ? end.minusMonths(1) : end.minusWeeks(1);
         String sDate = start.toString();
         String eDate = end.toString();
@@ -600,42 +718,21 @@ public class AiService {
                 aiMessage = "아직 충분한 식단 기록이 없습니다. 식단을 꾸준히 기록하면 분석해드릴게요!";
             } else {
                 // ---- 내 건강정보/질병/알러지/목표까지 포함 --------
-                MemberDto member = memberService.getMember(userId);
-                MemberGoalDto goal = healthService.calculateHealthMetrics(member);
-
-                String diseaseLabel = optionService.diseaseNames(member.getDiseaseIds());
-                String allergyLabel = optionService.allergyNames(member.getAllergyIds());
-                String gender = "M".equalsIgnoreCase(member.getGender()) ? "남성" : "여성";
-                int age = LocalDate.now().getYear() - member.getBirthYear();
-                int height = member.getHeight() != null ? member.getHeight().intValue() : 0;
-                int weight = member.getWeight() != null ? member.getWeight().intValue() : 0;
-                String activityLabel = activityLevelKor(member.getActivityLevel());
-                String goalLabel = dietGoalKor(member.getDietGoal());
-
-                long recKcal = Math.round(goal.getRecCalories());
+                HealthProfileSnapshot p = healthProfileService.getSnapshot(userId);
 
                 String periodName = "MONTHLY".equals(type) ? "지난 1개월" : "지난 1주일";
 
-                String prompt = String.format(
-                        "당신은 영양사/건강코치입니다.\n" +
-                                "아래는 %s간 나와 그룹 랭커(상위권 사용자) 비교 분석 결과입니다.\n" +
-                                "[나 정보] %d세 %s(키 %dcm, 몸무게 %dkg), 질환: %s, 알레르기: %s, 목표: %s, 권장칼로리: %d kcal\n" +
-                                "[나] 평균점수: %.1f, 평균칼로리: %.0f kcal\n" +
-                                "[랭커] 평균점수: %.1f, 평균칼로리: %.0f kcal\n" +
-                                "[목표] 칼로리: %.0f kcal\n" +
-                                "[미션] 점수·칼로리·내 신체·질환/알러지 등 내 정보를 반영하여\n" +
-                                "- 내 식습관상 부족/강점 1~2줄\n" +
-                                "- 랭커와 직접 비교했을 때 차이점/예시\n" +
-                                "- 건강개선 actionable tip/멘트 1줄\n" +
-                                "총 4줄을 현실감 있게 요약. 너무 추상적이거나 뻔하지 않게 당부.",
-                        periodName, age, gender, height, weight, diseaseLabel, allergyLabel,
-                        goalLabel, recKcal,
-                        myScore, myKcal, rankerScore, rankerKcal, goalKcal
-                );
-
-                aiMessage = safeAiCall("gapAnalysis",
-                        () -> reportClient.prompt().user(sanitizeForPrompt(prompt)).call()
-                                .content(),
+                String prompt = withProfile(promptTemplates.get("gap-analysis", userId), p)
+                        .put("periodName", periodName)
+                        .put("myScore", myScore)
+                        .put("myKcal", myKcal)
+                        .put("rankerScore", rankerScore)
+                        .put("rankerKcal", rankerKcal)
+                        .put("goalKcal", goalKcal)
+                        .render();
+
+                aiMessage = safeAiCall("gapAnalysis", AiModel.REPORT,
+                        () -> reportClient.prompt().user(prompt).call().chatResponse(),
                         FALLBACK_GAP_MSG);
 
                 reportDao.insertReportLog(ReportLogDto.builder()
@@ -657,7 +754,7 @@ public class AiService {
         return ((Number) map.get(key)).doubleValue();
     }
 
-    private boolean isFallbackMessage(String msg) {
+    public boolean isFallbackMessage(String msg) {
         if (msg == null) {
             return false;
         }
@@ -666,11 +763,41 @@ public class AiService {
                 || msg.equals(FALLBACK_GAP_MSG);
     }
 
+    /**
+     * 식단 점수 (0~100)
+     * - 기본: DietScoreCalculator 규칙 기반 점수 (LLM 호출 없음, 재현 가능)
+     * - app.ai.diet-score.llm-refine=true 이면 LLM 이 규칙 점수 ±10점 범위 안에서만 보정
+     */
     public int calculateDietScore(Long userId, DietDto dietDto) {
+        return calculateDietScore(userId, dietDto, dietScoreLlmRefine);
+    }
+
+    /**
+     * 분석 미리보기용 점수: 규칙 점수만 (분석 직후 LLM 보정 호출을 한 번 더 하지 않음)
+     * 저장 시 calculateDietScore 로 다시 계산되므로 보정이 꺼져 있으면 저장 점수와 같음
+     */
+    public int calculateBaseDietScore(Long userId, DietDto dietDto) {
+        return calculateDietScore(userId, dietDto, false);
+    }
+
+    private int calculateDietScore(Long userId, DietDto dietDto, boolean llmRefine) {
+        HealthProfileSnapshot p;
+        MemberGoalDto goal;
+        int baseScore;
         try {
-            MemberDto member = memberService.getMember(userId);
-            MemberGoalDto goal = healthService.calculateHealthMetrics(member);
+            p = healthProfileService.getSnapshot(userId);
+            goal = p.toGoal();
+            baseScore = dietScoreCalculator.score(goal, dietDto);
+        } catch (Exception e) {
+            log.warn("Diet score calculation failed. userId={}, err={}", userId, e.getMessage());
+            return 70;
+        }
 
+        if (!llmRefine) {
+            return baseScore;
+        }
+
+        try {
             // 1. 달성률 및 비율 계산 (Java에서 미리 수행)
             double kcalRate = (dietDto.getTotalKcal() / goal.getRecCalories()) * 100;
             double carbsRate = (dietDto.getTotalCarbs() / goal.getRecCarbs()) * 100;
@@ -678,29 +805,29 @@ public class AiService {
             double fatRate = (dietDto.getTotalFat() / goal.getRecFat()) * 100;
 
             // 2. 고도화된 프롬프트 구성
-            String prompt = String.format(
-                    "당신은 영양 분석 전문가입니다. 아래 데이터를 바탕으로 이번 식단의 '영양 적정성' 점수를 산출하세요.\n\n" +
-                            "[사용자 목표] %s (TDEE: %.0f kcal, 권장: %.0f kcal)\n" +
-                            "[이번 식단] %s (%.0f kcal)\n" +
-                            "[일일 권장량 대비 달성률]\n" +
-                            "- 칼로리: %.1f%% 채움\n" +
-                            "- 탄수화물: %.1f%% 채움\n" +
-                            "- 단백질: %.1f%% 채움\n" +
-                            "- 지방: %.1f%% 채움\n\n" +
-                            "위 비율이 한 끼 적정 비중(약 33%%)에 얼마나 부합하는지, 그리고 사용자의 목표(%s)에 도움이 되는 식단인지를 종합하여 " +
-                            "0~100점 사이의 점수 '숫자'만 답하세요.",
-                    dietGoalKor(member.getDietGoal()), goal.getTdee(), goal.getRecCalories(),
-                    dietDto.getMemo(), dietDto.getTotalKcal(),
-                    kcalRate, carbsRate, proteinRate, fatRate,
-                    dietGoalKor(member.getDietGoal())
-            );
-
-            String response = safeAiCall("calculateDietScore",
-                    () -> chatModel.call(sanitizeForPrompt(prompt)), "70");
-
-            return Integer.parseInt(response.replaceAll("[^0-9]", ""));
+            String prompt = promptTemplates.get("diet-score-refine", userId).with()
+                    .put("goal", p.goalLabel())
+                    .put("tdee", goal.getTdee())
+                    .put("recKcal", goal.getRecCalories())
+                    .putUser("menu", dietDto.getMemo())
+                    .put("kcal", dietDto.getTotalKcal())
+                    .put("kcalRate", kcalRate)
+                    .put("carbsRate", carbsRate)
+                    .put("proteinRate", proteinRate)
+                    .put("fatRate", fatRate)
+                    .put("baseScore", baseScore)
+                    .put("range", DIET_SCORE_REFINE_RANGE)
+                    .render();
+
+            String response = safeAiCall("calculateDietScore", AiModel.VISION,
+                    () -> chatModel.call(new Prompt(prompt)), String.valueOf(baseScore));
+
+            int refined = Integer.parseInt(response.replaceAll("[^0-9]", ""));
+            int clamped = Math.max(baseScore - DIET_SCORE_REFINE_RANGE,
+                    Math.min(baseScore + DIET_SCORE_REFINE_RANGE, refined));
+            return DietScoreCalculator.clamp(clamped);
         } catch (Exception e) {
-            return 70;
+            return baseScore;
         }
     }
 }
\ No newline at end of file
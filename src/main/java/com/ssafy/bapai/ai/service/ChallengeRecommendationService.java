@@ -0,0 +1,231 @@
+package com.ssafy.bapai.ai.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.ssafy.bapai.challenge.dto.ChallengePresetDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * AI 챌린지 추천 캐시 (/api/ai/challenges/recommend)
+ * - 캐시 키: 키워드 NFC 정규화 + 소문자 + 중복 제거 + 정렬 ("근력,다이어트")
+ * - 1차: 로컬 Caffeine (refreshAfterWrite -> 오래된 항목은 기존 값을 돌려주면서 백그라운드 갱신)
+ * - 2차: Redis (생성 시각 포함) -> 다른 노드가 최근에 만든 결과가 있으면 LLM 호출 없이 재사용
+ * - 인기 조합: Redis ZSET 요청 수 집계 -> 상위 조합을 주기적으로 미리 적재
+ * - LLM 실패(빈 결과)는 캐시하지 않고, 갱신 실패 시에는 기존 값 유지
+ */
+@Slf4j
+@Service
+public class ChallengeRecommendationService {
+
+    private static final String KEY_PREFIX = "ai:challenge:rec:";
+    // 항목 키(ai:challenge:rec:{키워드})와 겹치지 않도록 별도 네임스페이스 ("popular" 키워드와 충돌 방지)
+    private static final String POPULAR_KEY = "ai:challenge:popular";
+    private static final int MAX_KEYWORDS = 5;
+    private static final int MAX_KEYWORD_LENGTH = 20;
+    private static final int POPULAR_KEEP = 1000;
+
+    // Redis 저장 형식 (생성 시각으로 다른 노드의 최근 결과인지 판단)
+    private record Stored(long generatedAt, List<ChallengePresetDto> items) {
+    }
+
+    private final AiService aiService;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final LoadingCache<String, List<ChallengePresetDto>> localCache;
+    private final ExecutorService refreshExecutor;
+    private final Duration refreshAfter;
+    private final Duration ttl;
+    private final int warmTop;
+
+    public ChallengeRecommendationService(
+            AiService aiService,
+            StringRedisTemplate redisTemplate,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${app.ai.cache.challenge.local-size:1000}") long localSize,
+            @Value("${app.ai.cache.challenge.refresh-minutes:360}") long refreshMinutes,
+            @Value("${app.ai.cache.challenge.ttl-hours:72}") long ttlHours,
+            @Value("${app.ai.cache.challenge.warm-top:50}") int warmTop) {
+        this.aiService = aiService;
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.refreshAfter = Duration.ofMinutes(refreshMinutes);
+        this.ttl = Duration.ofHours(ttlHours);
+        this.warmTop = warmTop;
+
+        // 갱신은 LLM 호출(수 초)이라 공용 ForkJoinPool 대신 전용 스레드 사용
+        AtomicInteger seq = new AtomicInteger();
+        this.refreshExecutor = Executors.newFixedThreadPool(2, r -> {
+            Thread t = new Thread(r, "ai-challenge-refresh-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+
+        this.localCache = Caffeine.newBuilder()
+                .maximumSize(localSize)
+                .refreshAfterWrite(refreshAfter)
+                .expireAfterWrite(ttl)
+                .executor(refreshExecutor)
+                .recordStats()
+                .build(new CacheLoader<>() {
+                    @Override
+                    public List<ChallengePresetDto> load(String key) {
+                        return loadOrGenerate(key);
+                    }
+
+                    @Override
+                    public List<ChallengePresetDto> reload(String key,
+                                                           List<ChallengePresetDto> oldValue) {
+                        List<ChallengePresetDto> fresh = loadOrGenerate(key);
+                        return (fresh != null) ? fresh : oldValue;
+                    }
+                });
+        CaffeineCacheMetrics.monitor(meterRegistry, localCache, "ai-challenge", Tags.empty());
+    }
+
+    public List<ChallengePresetDto> recommend(List<String> keywords) {
+        String key = keyOf(keywords);
+        countPopular(key);
+
+        List<ChallengePresetDto> cached = localCache.getIfPresent(key);
+        if (cached != null) {
+            count("hit", "local");
+            return cached;
+        }
+        // 같은 키 동시 요청은 Caffeine 이 로더 1회로 합침
+        List<ChallengePresetDto> loaded = localCache.get(key);
+        return (loaded != null) ? loaded : Collections.emptyList();
+    }
+
+    // 정규화 키: "다이어트, 근력 , 다이어트" -> "근력,다이어트"
+    public static String keyOf(List<String> keywords) {
+        if (keywords == null) {
+            return "";
+        }
+        Set<String> normalized = new TreeSet<>();
+        for (String keyword : keywords) {
+            if (keyword == null) {
+                continue;
+            }
+            // ?keywords=a,b 형태도 허용
+            for (String part : keyword.split(",")) {
+                String s = Normalizer.normalize(part, Normalizer.Form.NFC).trim()
+                        .replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+                if (!s.isEmpty()) {
+                    normalized.add(s.length() > MAX_KEYWORD_LENGTH ? s.substring(0, MAX_KEYWORD_LENGTH) : s);
+                }
+            }
+        }
+        return String.join(",", normalized.stream().limit(MAX_KEYWORDS).toList());
+    }
+
+    // 인기 조합 미리 적재 (시작 직후 + 주기적으로). 이미 로컬에 있으면 건너뜀
+    // 적재는 refresh 로 refreshExecutor 에 넘기고 바로 반환 (LLM 호출 동안 스케줄러 스레드를 잡지 않음)
+    @Scheduled(initialDelayString = "${app.ai.cache.challenge.warm-initial-delay-ms:30000}",
+            fixedDelayString = "${app.ai.cache.challenge.warm-interval-ms:1800000}")
+    public void warmPopular() {
+        try {
+            Set<String> popular = redisTemplate.opsForZSet().reverseRange(POPULAR_KEY, 0, warmTop - 1);
+            if (popular == null || popular.isEmpty()) {
+                return;
+            }
+            int scheduled = 0;
+            for (String key : popular) {
+                if (localCache.getIfPresent(key) == null) {
+                    localCache.refresh(key);
+                    scheduled++;
+                }
+            }
+            // 집계 ZSET 이 무한히 커지지 않도록 상위 POPULAR_KEEP 개만 유지
+            redisTemplate.opsForZSet().removeRange(POPULAR_KEY, 0, -POPULAR_KEEP - 1L);
+            log.info("Challenge recommendation warm-up scheduled. candidates={}, loading={}",
+                    popular.size(), scheduled);
+        } catch (Exception e) {
+            log.warn("Challenge recommendation warm-up failed. err={}", e.getMessage());
+        }
+    }
+
+    /**
+     * Redis 에 최근(refreshAfter 이내) 결과가 있으면 재사용, 아니면 LLM 호출 후 저장.
+     * LLM 실패(빈 목록)면 null -> 캐시하지 않음
+     * (redis/none 지표에는 백그라운드 갱신·미리 적재도 포함)
+     */
+    private List<ChallengePresetDto> loadOrGenerate(String key) {
+        Stored stored = readRedis(key);
+        if (stored != null
+                && System.currentTimeMillis() - stored.generatedAt() < refreshAfter.toMillis()) {
+            count("hit", "redis");
+            return stored.items();
+        }
+
+        count("miss", "none");
+        List<String> keywords = key.isEmpty() ? null : Arrays.asList(key.split(","));
+        List<ChallengePresetDto> generated = aiService.recommendGroupChallenges(keywords);
+        if (generated == null || generated.isEmpty()) {
+            // 생성 실패 -> 만료 전의 Redis 값이라도 있으면 사용
+            return (stored != null) ? stored.items() : null;
+        }
+        writeRedis(key, new Stored(System.currentTimeMillis(), generated));
+        return generated;
+    }
+
+    private Stored readRedis(String key) {
+        try {
+            String json = redisTemplate.opsForValue().get(KEY_PREFIX + key);
+            return (json != null) ? objectMapper.readValue(json, Stored.class) : null;
+        } catch (Exception e) {
+            log.warn("Challenge recommendation cache read failed. key={}, err={}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeRedis(String key, Stored stored) {
+        try {
+            redisTemplate.opsForValue().set(KEY_PREFIX + key,
+                    objectMapper.writeValueAsString(stored), ttl);
+        } catch (Exception e) {
+            log.warn("Challenge recommendation cache write failed. key={}, err={}", key, e.getMessage());
+        }
+    }
+
+    private void countPopular(String key) {
+        try {
+            redisTemplate.opsForZSet().incrementScore(POPULAR_KEY, key, 1);
+        } catch (Exception e) {
+            log.debug("Challenge popularity count failed. key={}, err={}", key, e.getMessage());
+        }
+    }
+
+    private void count(String result, String layer) {
+        meterRegistry.counter("ai.cache.requests",
+                "cache", "challenge", "result", result, "layer", layer).increment();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+}
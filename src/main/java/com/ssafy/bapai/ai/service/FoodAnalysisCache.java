@@ -0,0 +1,141 @@
+package com.ssafy.bapai.ai.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Locale;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * 음식 분석 결과 캐시 (압축 이미지 바이트 + 정규화된 힌트 기준)
+ * - 1차: 로컬(Caffeine), 2차: Redis(TTL)
+ * - 같은 사진 재전송/더블탭 시 비전 모델 호출을 생략
+ */
+@Slf4j
+@Component
+public class FoodAnalysisCache {
+
+    private static final String KEY_PREFIX = "ai:food:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final Cache<String, String> localCache;
+    private final Duration ttl;
+
+    private final Counter localHitCounter;
+    private final Counter redisHitCounter;
+    private final Counter missCounter;
+
+    public FoodAnalysisCache(StringRedisTemplate redisTemplate,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.ai.cache.food.ttl-hours:72}") long ttlHours,
+                             @Value("${app.ai.cache.food.local-size:1000}") long localSize,
+                             @Value("${app.ai.cache.food.local-ttl-minutes:10}")
+                             long localTtlMinutes) {
+        this.redisTemplate = redisTemplate;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.localCache = Caffeine.newBuilder()
+                .maximumSize(localSize)
+                .expireAfterWrite(Duration.ofMinutes(localTtlMinutes))
+                .build();
+
+        this.localHitCounter = Counter.builder("ai.cache.requests")
+                .tag("cache", "food").tag("result", "hit").tag("layer", "local")
+                .register(meterRegistry);
+        this.redisHitCounter = Counter.builder("ai.cache.requests")
+                .tag("cache", "food").tag("result", "hit").tag("layer", "redis")
+                .register(meterRegistry);
+        this.missCounter = Counter.builder("ai.cache.requests")
+                .tag("cache", "food").tag("result", "miss").tag("layer", "none")
+                .register(meterRegistry);
+    }
+
+    // 캐시 키: SHA-256(압축 이미지 바이트 + 0x00 + 정규화 힌트)
+    public String keyOf(byte[] imageBytes, String hint) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            if (imageBytes != null) {
+                digest.update(imageBytes);
+            }
+            digest.update((byte) 0);
+            digest.update(normalizeHint(hint).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 미지원 환경입니다.", e);
+        }
+    }
+
+    public String get(String key) {
+        String local = localCache.getIfPresent(key);
+        if (local != null) {
+            localHitCounter.increment();
+            return local;
+        }
+
+        try {
+            String remote = redisTemplate.opsForValue().get(KEY_PREFIX + key);
+            if (remote != null) {
+                localCache.put(key, remote);
+                redisHitCounter.increment();
+                return remote;
+            }
+        } catch (Exception e) {
+            // Redis 장애 시에는 캐시 미스로 취급 (분석 자체는 계속 진행)
+            log.warn("Food analysis cache read failed. key={}, err={}", key, e.getMessage());
+        }
+
+        missCounter.increment();
+        return null;
+    }
+
+    /**
+     * 메트릭을 남기지 않는 조회 (근사 중복 후보 확인용)
+     * - 요청 1건의 exact 조회는 get() 에서 이미 집계되므로 후보 탐색이 hit/miss 를 부풀리지 않도록 분리
+     */
+    public String peek(String key) {
+        String local = localCache.getIfPresent(key);
+        if (local != null) {
+            return local;
+        }
+        try {
+            String remote = redisTemplate.opsForValue().get(KEY_PREFIX + key);
+            if (remote != null) {
+                localCache.put(key, remote);
+            }
+            return remote;
+        } catch (Exception e) {
+            log.warn("Food analysis cache read failed. key={}, err={}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    public void put(String key, String json) {
+        if (json == null || json.isBlank()) {
+            return;
+        }
+        localCache.put(key, json);
+        try {
+            redisTemplate.opsForValue().set(KEY_PREFIX + key, json, ttl);
+        } catch (Exception e) {
+            log.warn("Food analysis cache write failed. key={}, err={}", key, e.getMessage());
+        }
+    }
+
+    // 힌트 정규화: 유니코드 NFC + 공백 정리 + 소문자
+    private String normalizeHint(String hint) {
+        if (hint == null) {
+            return "";
+        }
+        String s = Normalizer.normalize(hint, Normalizer.Form.NFC).trim();
+        return s.replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+}
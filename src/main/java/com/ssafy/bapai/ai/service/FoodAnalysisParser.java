@@ -0,0 +1,42 @@
+package com.ssafy.bapai.ai.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ssafy.bapai.ai.dto.FoodAnalysisResult;
+import java.io.IOException;
+import org.springframework.stereotype.Component;
+
+/**
+ * LLM 음식 분석 응답 -> FoodAnalysisResult (한 번의 스트리밍 파싱)
+ * - 코드펜스(```json)나 앞쪽 잡담은 첫 '{' 위치부터 읽어 건너뜀 (문자열 치환/복사 없음)
+ * - 루트 객체가 닫히면 파싱 종료 -> 뒤쪽 펜스/설명 문장도 무시
+ */
+@Component
+public class FoodAnalysisParser {
+
+    private final ObjectMapper objectMapper;
+
+    public FoodAnalysisParser(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * @throws IOException JSON 객체가 없거나 형식이 깨진 경우 (호출 측 fallback)
+     */
+    public FoodAnalysisResult parse(String raw) throws IOException {
+        int start = (raw == null) ? -1 : raw.indexOf('{');
+        if (start < 0) {
+            throw new IOException("AI 응답에 JSON 객체가 없습니다.");
+        }
+        char[] chars = raw.toCharArray();
+        try (JsonParser parser = objectMapper.getFactory()
+                .createParser(chars, start, chars.length - start)) {
+            return objectMapper.readValue(parser, FoodAnalysisResult.class);
+        }
+    }
+
+    // 캐시 저장용 정규화 JSON
+    public String toJson(FoodAnalysisResult result) throws IOException {
+        return objectMapper.writeValueAsString(result);
+    }
+}
@@ -0,0 +1,164 @@
+package com.ssafy.bapai.ai.service;
+
+import com.ssafy.bapai.ai.dto.FoodAnalysisResult;
+import com.ssafy.bapai.food.dao.FoodDao;
+import com.ssafy.bapai.food.dto.FoodDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 사진 없이 음식명만 들어온 분석 요청을 food 테이블에서 먼저 해결 (LLM 호출 생략)
+ * 1) 이름 정확 일치 -> 2) 입력 이름을 그대로 포함하는 음식명 후보 중 공백 제거 후 편집거리 유사도가 가장 높은 것 (minSimilarity 이상)
+ *    - 후보 조회는 포함(LIKE '%이름%', %/_ 이스케이프) 검색이고 편집거리는 그 안에서 순위만 매김
+ *      -> 오타/띄어쓰기가 다른 이름은 후보에 없으므로 LLM 경로로 감 (퍼지 검색이 아님)
+ * - food 테이블 영양소는 100g(ml) 기준 -> servingSize/100 배로 1회 제공량 환산
+ * - 결과는 LLM 분석과 같은 FoodAnalysisResult, score 는 비워 둠
+ *   (분석 응답/저장 모두 DietServiceImpl 이 사용자 목표 기준 DietScoreCalculator 점수로 채움)
+ */
+@Slf4j
+@Component
+public class FoodCatalogResolver {
+
+    private static final int CANDIDATE_LIMIT = 20;
+    private static final double BASE_AMOUNT = 100.0;
+
+    private final FoodDao foodDao;
+    private final boolean enabled;
+    private final double minSimilarity;
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
+
+    public FoodCatalogResolver(FoodDao foodDao,
+                               MeterRegistry meterRegistry,
+                               @Value("${app.ai.food-catalog.enabled:true}") boolean enabled,
+                               @Value("${app.ai.food-catalog.min-similarity:0.6}")
+                               double minSimilarity) {
+        this.foodDao = foodDao;
+        this.enabled = enabled;
+        this.minSimilarity = minSimilarity;
+
+        this.hitCounter = Counter.builder("ai.cache.requests")
+                .tag("cache", "food-catalog").tag("result", "hit").tag("layer", "db")
+                .register(meterRegistry);
+        this.missCounter = Counter.builder("ai.cache.requests")
+                .tag("cache", "food-catalog").tag("result", "miss").tag("layer", "none")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return 1회 제공량 기준 분석 결과, 카탈로그에 없으면 null (-> LLM 호출)
+     */
+    public FoodAnalysisResult resolve(String foodName) {
+        if (!enabled || foodName == null || foodName.isBlank()) {
+            return null;
+        }
+        String name = foodName.trim();
+        try {
+            FoodDto food = foodDao.selectByExactName(name);
+            if (!hasNutrients(food)) {
+                food = bestCandidate(name);
+            }
+            if (!hasNutrients(food)) {
+                missCounter.increment();
+                return null;
+            }
+            hitCounter.increment();
+            return toResult(food);
+        } catch (Exception e) {
+            // DB 조회 실패는 분석 실패가 아님 -> 기존 LLM 경로로
+            log.warn("Food catalog lookup failed. name={}, err={}", name, e.getMessage());
+            missCounter.increment();
+            return null;
+        }
+    }
+
+    private FoodDto bestCandidate(String name) {
+        List<FoodDto> candidates = foodDao.selectNameCandidates(escapeLike(name), CANDIDATE_LIMIT);
+        String target = compact(name);
+
+        FoodDto best = null;
+        double bestSimilarity = 0.0;
+        for (FoodDto candidate : candidates) {
+            if (!hasNutrients(candidate)) {
+                continue;
+            }
+            double similarity = similarity(target, compact(candidate.getName()));
+            // 후보는 일반 음식/짧은 이름 순으로 정렬되어 있으므로 동점이면 앞의 것 유지
+            if (similarity >= minSimilarity && (best == null || similarity > bestSimilarity)) {
+                best = candidate;
+                bestSimilarity = similarity;
+            }
+        }
+        return best;
+    }
+
+    private FoodAnalysisResult toResult(FoodDto food) {
+        double factor = (food.getServingSize() != null && food.getServingSize() > 0)
+                ? food.getServingSize() / BASE_AMOUNT : 1.0;
+        String serving = format(factor * BASE_AMOUNT)
+                + ((food.getUnit() != null && factor != 1.0) ? food.getUnit() : "g");
+
+        return new FoodAnalysisResult(food.getName(),
+                (double) Math.round(food.getKcal() * factor),
+                round1(food.getCarbo(), factor),
+                round1(food.getProtein(), factor),
+                round1(food.getFat(), factor),
+                null,
+                "식품 영양성분 DB 기준 1회 제공량(" + serving + ") 영양 정보입니다.",
+                null);
+    }
+
+    private static boolean hasNutrients(FoodDto food) {
+        return food != null && food.getKcal() != null;
+    }
+
+    private static double round1(Double value, double factor) {
+        return (value == null) ? 0.0 : Math.round(value * factor * 10) / 10.0;
+    }
+
+    private static String format(double value) {
+        return (value == Math.rint(value)) ? String.valueOf((long) value) : String.valueOf(value);
+    }
+    // LIKE 메타문자(\, %, _)를 문자 그대로 매칭 (매퍼의 ESCAPE 와 짝)
+    // LIKE 메타문자(\\, %, _)를 문자 그대로 매칭 (매퍼의 ESCAPE '\\' 와 짝)
+    private static String escapeLike(String s) {
+        return s.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private static String compact(String s) {
+        return s.replaceAll("\\s+", "");
+    }
+
+    // 1 - 편집거리 / 긴 문자열 길이 (0~1)
+    static double similarity(String a, String b) {
+        int maxLen = Math.max(a.length(), b.length());
+        if (maxLen == 0) {
+            return 1.0;
+        }
+        return 1.0 - (double) levenshtein(a, b) / maxLen;
+    }
+
+    private static int levenshtein(String a, String b) {
+        int[] prev = new int[b.length() + 1];
+        int[] curr = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            prev[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            curr[0] = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = (a.charAt(i - 1) == b.charAt(j - 1)) ? 0 : 1;
+                curr[j] = Math.min(Math.min(curr[j - 1] + 1, prev[j] + 1), prev[j - 1] + cost);
+            }
+            int[] tmp = prev;
+            prev = curr;
+            curr = tmp;
+        }
+        return prev[b.length()];
+    }
+}
@@ -0,0 +1,124 @@
+package com.ssafy.bapai.ai.service;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 음식 사진 -> 512px JPEG + dHash
+ * 1) 헤더에서 가로/세로만 먼저 읽어 픽셀 상한 검사 (전체 디코딩 전에 거절)
+ * 2) setSourceSubsampling 으로 목표 크기 근처까지 줄이면서 디코딩 (16MP 원본 BufferedImage 할당 X)
+ * 3) 남은 비율만 bilinear 리사이즈 후, 스레드별로 재사용하는 ImageWriter 로 품질 지정 JPEG 인코딩
+ * - ImageIO 디스크 캐시를 쓰지 않도록 MemoryCache 스트림 사용
+ */
+@Component
+public class FoodImageCompressor {
+
+    public static final int TARGET_WIDTH = 512;
+    private static final long MAX_IMAGE_PIXELS = 4096L * 4096L; // DoS 완화용(약 16MP)
+
+    // 압축된 JPEG + 지각 해시(dHash)
+    public record Compressed(byte[] jpeg, long dHash) {
+    }
+
+    private final float jpegQuality;
+
+    // ImageWriter 는 thread-safe 하지 않으므로 스레드별 1개 재사용
+    private final ThreadLocal<ImageWriter> jpegWriter = ThreadLocal.withInitial(
+            () -> ImageIO.getImageWritersByFormatName("jpeg").next());
+
+    public FoodImageCompressor(@Value("${app.ai.image.jpeg-quality:0.85}") float jpegQuality) {
+        this.jpegQuality = jpegQuality;
+    }
+
+    public Compressed compress(byte[] image) throws IOException {
+        BufferedImage decoded = decodeSubsampled(image, TARGET_WIDTH);
+        BufferedImage resized = resize(decoded, TARGET_WIDTH);
+        return new Compressed(encodeJpeg(resized), FoodImageIndex.dHash(resized));
+    }
+
+    BufferedImage decodeSubsampled(byte[] image, int targetWidth) throws IOException {
+        try (ImageInputStream in = new MemoryCacheImageInputStream(new ByteArrayInputStream(image))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                throw new IllegalArgumentException("이미지 파일이 아닙니다.");
+            }
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+
+                // ✅ 픽셀 수 상한 (초고해상도 DoS 완화) - 헤더만 읽은 상태에서 검사
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * (long) height > MAX_IMAGE_PIXELS) {
+                    throw new IllegalArgumentException("이미지 해상도가 너무 큽니다.");
+                }
+
+                // 디코딩 결과 가로가 targetWidth 이상으로 남는 최대 정수 배율
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = Math.max(1, width / targetWidth);
+                if (step > 1) {
+                    param.setSourceSubsampling(step, step, 0, 0);
+                }
+
+                BufferedImage decoded = reader.read(0, param);
+                if (decoded == null) {
+                    throw new IllegalArgumentException("이미지 파일이 아닙니다.");
+                }
+                return decoded;
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // 항상 TYPE_INT_RGB 로 그려 알파 채널(PNG 등)을 제거 -> JPEG 인코딩 가능
+    BufferedImage resize(BufferedImage source, int targetWidth) {
+        int width = Math.min(targetWidth, source.getWidth());
+        int height = Math.max(1, (int) ((double) width / source.getWidth() * source.getHeight()));
+
+        BufferedImage resized = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = resized.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+                    RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return resized;
+    }
+
+    byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = jpegWriter.get();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(jpegQuality);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64 * 1024);
+        try (ImageOutputStream ios = new MemoryCacheImageOutputStream(out)) {
+            writer.setOutput(ios);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.reset();
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,297 @@
+package com.ssafy.bapai.ai.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.awt.image.BufferedImage;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * 음식 사진 근사 중복 인덱스 (dHash 64bit + 해밍 거리)
+ * - 같은 접시를 조금 다른 각도로 다시 찍은 경우 기존 분석 결과를 재사용
+ * - 조회는 메모리 인덱스, 원본은 항목별 Redis 키 ai:food:phash:{캐시 키} (기동 시 SCAN 으로 재구성)
+ *   -> 분석 캐시와 같은 TTL 로 항목마다 따로 만료 (한 키에 모두 쌓여 TTL 이 계속 연장되지 않음)
+ * - 실제 분석 JSON 은 FoodAnalysisCache 에 있으므로 여기서는 캐시 키만 보관
+ * - 64bit 해시를 16bit 밴드 4개로 나눠 버킷팅 (비둘기집 원리: 거리 d 이내면 어떤 밴드는 d/4 비트 이하만 다름)
+ *   -> 조회 시 각 밴드에서 d/4 비트 이내로 뒤집은 값의 버킷만 확인, 전체 인덱스를 순회하지 않음
+ */
+@Slf4j
+@Component
+public class FoodImageIndex {
+
+    private static final String KEY_PREFIX = "ai:food:phash:";
+    private static final int REBUILD_BATCH = 500;
+    private static final int HASH_WIDTH = 9;
+    private static final int HASH_HEIGHT = 8;
+    private static final int BANDS = 4;
+    private static final int BAND_BITS = Long.SIZE / BANDS;
+    private static final int BAND_MASK = (1 << BAND_BITS) - 1;
+
+    private final StringRedisTemplate redisTemplate;
+    private final FoodAnalysisCache foodAnalysisCache;
+    private final Cache<String, Entry> index;
+    // 버킷 키: (밴드 번호 << 16) | 밴드 값 -> 캐시 키 집합
+    private final Map<Integer, Set<String>> buckets = new ConcurrentHashMap<>();
+    private final int maxDistance;
+    private final int probeRadius;
+    private final Duration ttl;
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
+
+    // 인덱스 항목: 지각 해시 + 힌트 키 (힌트가 다르면 재사용하지 않음)
+    private record Entry(long hash, String hintKey) {
+    }
+
+    private record Candidate(String cacheKey, int distance) {
+    }
+
+    public FoodImageIndex(StringRedisTemplate redisTemplate,
+                          FoodAnalysisCache foodAnalysisCache,
+                          MeterRegistry meterRegistry,
+                          @Value("${app.ai.cache.phash.max-distance:6}") int maxDistance,
+                          @Value("${app.ai.cache.phash.max-entries:50000}") long maxEntries,
+                          @Value("${app.ai.cache.food.ttl-hours:72}") long ttlHours) {
+        this.redisTemplate = redisTemplate;
+        this.foodAnalysisCache = foodAnalysisCache;
+        this.maxDistance = maxDistance;
+        this.probeRadius = Math.max(0, maxDistance) / BANDS;
+        this.ttl = Duration.ofHours(ttlHours);
+        // 만료/용량 초과/교체/삭제 모두 버킷에서 정리 (호출 스레드에서 바로 실행해 버킷과 인덱스를 맞춤)
+        this.index = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .executor(Runnable::run)
+                .<String, Entry>removalListener((key, value, cause) -> {
+                    if (key != null && value != null) {
+                        unbucket(key, value);
+                    }
+                })
+                .build();
+
+        this.hitCounter = Counter.builder("ai.cache.requests")
+                .tag("cache", "food-phash").tag("result", "hit").tag("layer", "local")
+                .register(meterRegistry);
+        this.missCounter = Counter.builder("ai.cache.requests")
+                .tag("cache", "food-phash").tag("result", "miss").tag("layer", "none")
+                .register(meterRegistry);
+        Gauge.builder("ai.cache.phash.entries", index, Cache::estimatedSize)
+                .register(meterRegistry);
+    }
+
+    /**
+     * dHash: 9x8 격자 평균 밝기에서 가로로 인접한 칸의 대소 비교 (64bit)
+     */
+    public static long dHash(BufferedImage image) {
+        int w = image.getWidth();
+        int h = image.getHeight();
+        int[] rgb = image.getRGB(0, 0, w, h, null, 0, w);
+
+        double[] sum = new double[HASH_WIDTH * HASH_HEIGHT];
+        int[] count = new int[HASH_WIDTH * HASH_HEIGHT];
+        for (int y = 0; y < h; y++) {
+            int cy = Math.min(HASH_HEIGHT - 1, y * HASH_HEIGHT / h);
+            for (int x = 0; x < w; x++) {
+                int cx = Math.min(HASH_WIDTH - 1, x * HASH_WIDTH / w);
+                int p = rgb[y * w + x];
+                int r = (p >> 16) & 0xFF;
+                int g = (p >> 8) & 0xFF;
+                int b = p & 0xFF;
+                sum[cy * HASH_WIDTH + cx] += 0.299 * r + 0.587 * g + 0.114 * b;
+                count[cy * HASH_WIDTH + cx]++;
+            }
+        }
+
+        long hash = 0L;
+        for (int y = 0; y < HASH_HEIGHT; y++) {
+            for (int x = 0; x < HASH_WIDTH - 1; x++) {
+                int i = y * HASH_WIDTH + x;
+                double left = count[i] == 0 ? 0 : sum[i] / count[i];
+                double right = count[i + 1] == 0 ? 0 : sum[i + 1] / count[i + 1];
+                hash = (hash << 1) | (left > right ? 1L : 0L);
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * 해밍 거리 maxDistance 이내 + 같은 힌트로 분석된 결과 JSON 반환 (없으면 null)
+     */
+    public String findNear(long hash, String hint) {
+        String hintKey = foodAnalysisCache.keyOf(null, hint);
+
+        Set<String> keys = new HashSet<>();
+        for (int band = 0; band < BANDS; band++) {
+            probe(band, bandValue(hash, band), 0, probeRadius, keys);
+        }
+
+        List<Candidate> candidates = new ArrayList<>();
+        for (String key : keys) {
+            Entry entry = index.getIfPresent(key);
+            if (entry == null || !entry.hintKey().equals(hintKey)) {
+                continue;
+            }
+            int distance = Long.bitCount(entry.hash() ^ hash);
+            if (distance <= maxDistance) {
+                candidates.add(new Candidate(key, distance));
+            }
+        }
+        candidates.sort(Comparator.comparingInt(Candidate::distance));
+
+        // 가까운 순으로 시도, 원본 분석 결과가 만료된 후보는 인덱스에서 정리하고 다음 후보로
+        for (Candidate candidate : candidates) {
+            String json = foodAnalysisCache.peek(candidate.cacheKey());
+            if (json != null) {
+                hitCounter.increment();
+                log.debug("Near-duplicate food image matched. distance={}", candidate.distance());
+                return json;
+            }
+            remove(candidate.cacheKey());
+        }
+
+        missCounter.increment();
+        return null;
+    }
+
+    public void add(String cacheKey, long hash, String hint) {
+        String hintKey = foodAnalysisCache.keyOf(null, hint);
+        put(cacheKey, new Entry(hash, hintKey));
+        try {
+            redisTemplate.opsForValue().set(KEY_PREFIX + cacheKey, encode(hash, hintKey), ttl);
+        } catch (Exception e) {
+            log.warn("Food image index write failed. key={}, err={}", cacheKey, e.getMessage());
+        }
+    }
+
+    private void put(String cacheKey, Entry entry) {
+        index.put(cacheKey, entry);
+        for (int band = 0; band < BANDS; band++) {
+            buckets.compute(bucketKey(band, bandValue(entry.hash(), band)), (k, set) -> {
+                Set<String> target = (set != null) ? set : ConcurrentHashMap.newKeySet();
+                target.add(cacheKey);
+                return target;
+            });
+        }
+    }
+
+    // 교체된 경우 새 항목과 같은 밴드 값의 버킷은 유지
+    private void unbucket(String cacheKey, Entry removed) {
+        Entry current = index.getIfPresent(cacheKey);
+        for (int band = 0; band < BANDS; band++) {
+            int value = bandValue(removed.hash(), band);
+            if (current != null && bandValue(current.hash(), band) == value) {
+                continue;
+            }
+            buckets.computeIfPresent(bucketKey(band, value), (k, set) -> {
+                set.remove(cacheKey);
+                return set.isEmpty() ? null : set;
+            });
+        }
+    }
+
+    // 밴드 값에서 radius 비트 이내로 뒤집은 모든 값의 버킷을 수집 (start 이후 비트만 뒤집어 중복 없이 열거)
+    private void probe(int band, int value, int start, int radius, Set<String> out) {
+        Set<String> bucket = buckets.get(bucketKey(band, value));
+        if (bucket != null) {
+            out.addAll(bucket);
+        }
+        if (radius == 0) {
+            return;
+        }
+        for (int bit = start; bit < BAND_BITS; bit++) {
+            probe(band, value ^ (1 << bit), bit + 1, radius - 1, out);
+        }
+    }
+
+    private static int bandValue(long hash, int band) {
+        return (int) (hash >>> (band * BAND_BITS)) & BAND_MASK;
+    }
+
+    private static int bucketKey(int band, int value) {
+        return (band << BAND_BITS) | value;
+    }
+
+    private void remove(String cacheKey) {
+        index.invalidate(cacheKey);
+        try {
+            redisTemplate.delete(KEY_PREFIX + cacheKey);
+        } catch (Exception e) {
+            log.warn("Food image index delete failed. key={}, err={}", cacheKey, e.getMessage());
+        }
+    }
+
+    // 기동 시 Redis 에서 메모리 인덱스 재구성 (SCAN 으로 키를 모아 MGET 배치 조회)
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        int loaded = 0;
+        ScanOptions options = ScanOptions.scanOptions().match(KEY_PREFIX + "*").count(1000).build();
+        try (Cursor<String> cursor = redisTemplate.scan(options)) {
+            List<String> keys = new ArrayList<>(REBUILD_BATCH);
+            while (cursor.hasNext()) {
+                keys.add(cursor.next());
+                if (keys.size() == REBUILD_BATCH) {
+                    loaded += load(keys);
+                    keys.clear();
+                }
+            }
+            if (!keys.isEmpty()) {
+                loaded += load(keys);
+            }
+            log.info("Food image index rebuilt from Redis. entries={}", loaded);
+        } catch (Exception e) {
+            log.warn("Food image index rebuild failed. err={}", e.getMessage());
+        }
+    }
+
+    private int load(List<String> keys) {
+        List<String> values = redisTemplate.opsForValue().multiGet(keys);
+        if (values == null) {
+            return 0;
+        }
+        int loaded = 0;
+        for (int i = 0; i < keys.size(); i++) {
+            Entry entry = (values.get(i) != null) ? decode(values.get(i)) : null;
+            if (entry != null) {
+                put(keys.get(i).substring(KEY_PREFIX.length()), entry);
+                loaded++;
+            }
+        }
+        return loaded;
+    }
+
+    // Redis 값 포맷: "{hash hex}:{hintKey}"
+    private String encode(long hash, String hintKey) {
+        return HexFormat.of().toHexDigits(hash) + ":" + hintKey;
+    }
+
+    private Entry decode(String value) {
+        int sep = value.indexOf(':');
+        if (sep <= 0) {
+            return null;
+        }
+        try {
+            long hash = HexFormat.fromHexDigitsToLong(value.substring(0, sep));
+            return new Entry(hash, value.substring(sep + 1));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.ssafy.bapai.ai.service;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 사용자 입력(메뉴명, 힌트, 키워드 등)을 프롬프트에 넣기 전 정리 - 정규식 1회 스캔
+ * - 제어문자 -> 공백, 인젝션 문구 -> [filtered] (아주 단순한 완화, 완벽 X)
+ * - 앞뒤 공백 제거 후 maxLength 초과분은 "..." 로 자름
+ * - 템플릿 본문에는 적용하지 않음 (줄바꿈/길이 유지)
+ */
+public final class PromptSanitizer {
+
+    public static final int MAX_LENGTH = 800;
+
+    private static final String FILTERED = "[filtered]";
+    private static final String GAP = "[\\s\\p{Cntrl}]+";
+
+    // group 1 = 제어문자, 나머지 = 인젝션 문구 (중간 공백/줄바꿈 변형도 포함)
+    private static final Pattern PATTERN = Pattern.compile(
+            "(\\p{Cntrl})"
+                    + "|(?i:ignore" + GAP + "(?:all|previous)" + GAP + "instructions"
+                    + "|system" + GAP + "prompt"
+                    + "|developer" + GAP + "message)");
+
+    private PromptSanitizer() {
+    }
+
+    public static String sanitize(String input) {
+        return sanitize(input, MAX_LENGTH);
+    }
+
+    public static String sanitize(String input, int maxLength) {
+        if (input == null) {
+            return "";
+        }
+        Matcher m = PATTERN.matcher(input);
+        if (!m.find()) {
+            return truncate(input.trim(), maxLength);
+        }
+
+        StringBuilder sb = new StringBuilder(input.length());
+        int last = 0;
+        do {
+            sb.append(input, last, m.start());
+            sb.append(m.start(1) >= 0 ? " " : FILTERED);
+            last = m.end();
+        } while (m.find());
+        sb.append(input, last, input.length());
+        return truncate(sb.toString().trim(), maxLength);
+    }
+
+    private static String truncate(String s, int maxLength) {
+        return (s.length() > maxLength) ? s.substring(0, maxLength) + "..." : s;
+    }
+}
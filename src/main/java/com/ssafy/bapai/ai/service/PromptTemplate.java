@@ -0,0 +1,142 @@
+package com.ssafy.bapai.ai.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 미리 파싱된 프롬프트 템플릿 (resources/prompts/{name}.{version}.txt)
+ * - 자리표시자: {{name}}, 소수 자릿수 지정: {{name:1}} (HALF_UP, String.format("%.1f") 과 동일)
+ * - 로딩 시 리터럴/변수 조각으로 나눠 두고, 렌더링은 StringBuilder 에 이어붙이기만 함
+ * - 사용자 입력은 putUser 로 넣어 그 값에만 PromptSanitizer 적용
+ */
+public final class PromptTemplate {
+
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\{\\{(\\w+)(?::(\\d))?}}");
+
+    private final String name;
+    private final String version;
+    private final String[] literals; // literals[i] 뒤에 변수 i (마지막 리터럴 뒤에는 없음)
+    private final int[] slots;       // 조각 i 가 가리키는 변수 번호
+    private final int[] decimals;    // -1 이면 그대로 출력
+    private final Map<String, Integer> index;
+    private final int literalLength;
+
+    private PromptTemplate(String name, String version, String[] literals, int[] slots,
+                           int[] decimals, Map<String, Integer> index) {
+        this.name = name;
+        this.version = version;
+        this.literals = literals;
+        this.slots = slots;
+        this.decimals = decimals;
+        this.index = index;
+        int len = 0;
+        for (String literal : literals) {
+            len += literal.length();
+        }
+        this.literalLength = len;
+    }
+
+    static PromptTemplate parse(String name, String version, String text) {
+        List<String> literals = new ArrayList<>();
+        List<Integer> slots = new ArrayList<>();
+        List<Integer> decimals = new ArrayList<>();
+        Map<String, Integer> index = new HashMap<>();
+
+        Matcher m = PLACEHOLDER.matcher(text);
+        int last = 0;
+        while (m.find()) {
+            literals.add(text.substring(last, m.start()));
+            Integer slot = index.computeIfAbsent(m.group(1), k -> index.size());
+            slots.add(slot);
+            decimals.add(m.group(2) != null ? Integer.parseInt(m.group(2)) : -1);
+            last = m.end();
+        }
+        literals.add(text.substring(last));
+
+        return new PromptTemplate(name, version, literals.toArray(String[]::new),
+                slots.stream().mapToInt(Integer::intValue).toArray(),
+                decimals.stream().mapToInt(Integer::intValue).toArray(), index);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public String version() {
+        return version;
+    }
+
+    public boolean has(String key) {
+        return index.containsKey(key);
+    }
+
+    public Values with() {
+        return new Values();
+    }
+
+    public final class Values {
+
+        private final String[] values = new String[index.size()];
+
+        public Values put(String key, Object value) {
+            values[slotOf(key)] = (value == null) ? "" : value.toString();
+            return this;
+        }
+
+        // 사용자 입력 (메뉴명/힌트/키워드 등)
+        public Values putUser(String key, String value) {
+            values[slotOf(key)] = PromptSanitizer.sanitize(value);
+            return this;
+        }
+
+        public String render() {
+            int len = literalLength;
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] == null) {
+                    throw new IllegalStateException(
+                            "프롬프트 변수 누락: " + name + "." + version + " -> " + keyOf(i));
+                }
+                len += values[i].length();
+            }
+
+            StringBuilder sb = new StringBuilder(len + 16);
+            for (int i = 0; i < slots.length; i++) {
+                sb.append(literals[i]);
+                String value = values[slots[i]];
+                sb.append(decimals[i] >= 0 ? round(value, decimals[i]) : value);
+            }
+            sb.append(literals[literals.length - 1]);
+            return sb.toString();
+        }
+
+        private int slotOf(String key) {
+            Integer slot = index.get(key);
+            if (slot == null) {
+                throw new IllegalArgumentException(
+                        "프롬프트에 없는 변수: " + name + "." + version + " -> " + key);
+            }
+            return slot;
+        }
+
+        private String keyOf(int slot) {
+            return index.entrySet().stream()
+                    .filter(e -> e.getValue() == slot)
+                    .map(Map.Entry::getKey)
+                    .findFirst().orElse("?");
+        }
+    }
+
+    private static String round(String value, int scale) {
+        try {
+            return new BigDecimal(value).setScale(scale, RoundingMode.HALF_UP).toPlainString();
+        } catch (NumberFormatException e) {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.ssafy.bapai.ai.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+/**
+ * 프롬프트 템플릿 저장소 + A/B 버전 선택
+ * - 시작 시 classpath:prompts/{name}.{version}.txt 를 모두 읽어 PromptTemplate 으로 파싱
+ * - 기본 버전: app.ai.prompt.default-version (v1)
+ * - 실험: app.ai.prompt.experiments="period-report=v2:50,daily-report=v2:10"
+ *   -> 사용자별로 고정된 버킷(userId + 템플릿명 해시 % 100)이 비율 안이면 실험 버전 사용
+ * - ai.prompt.renders{template, version} 로 버전별 사용량 기록
+ */
+@Slf4j
+@Component
+public class PromptTemplateEngine {
+
+    private static final String LOCATION = "classpath*:prompts/*.txt";
+
+    private record Experiment(String version, int percent) {
+    }
+
+    private final Map<String, PromptTemplate> templates = new HashMap<>();
+    private final Map<String, Experiment> experiments = new HashMap<>();
+    private final String defaultVersion;
+    private final MeterRegistry meterRegistry;
+
+    public PromptTemplateEngine(MeterRegistry meterRegistry,
+                                @Value("${app.ai.prompt.default-version:v1}") String defaultVersion,
+                                @Value("${app.ai.prompt.experiments:}") String experimentSpec)
+            throws IOException {
+        this.meterRegistry = meterRegistry;
+        this.defaultVersion = defaultVersion;
+
+        for (Resource resource : new PathMatchingResourcePatternResolver().getResources(LOCATION)) {
+            String file = Objects.requireNonNull(resource.getFilename());
+            String base = file.substring(0, file.length() - ".txt".length());
+            int dot = base.lastIndexOf('.');
+            if (dot < 0) {
+                throw new IllegalStateException("프롬프트 파일명은 {name}.{version}.txt 형식이어야 합니다: " + file);
+            }
+            String name = base.substring(0, dot);
+            String version = base.substring(dot + 1);
+            try (InputStream in = resource.getInputStream()) {
+                String text = new String(in.readAllBytes(), StandardCharsets.UTF_8).stripTrailing();
+                templates.put(key(name, version), PromptTemplate.parse(name, version, text));
+            }
+        }
+
+        for (String entry : experimentSpec.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            // name=version:percent
+            String[] nameRest = entry.trim().split("=");
+            String[] versionPercent = nameRest[1].split(":");
+            String name = nameRest[0].trim();
+            String version = versionPercent[0].trim();
+            if (!templates.containsKey(key(name, version))) {
+                throw new IllegalStateException("실험 대상 프롬프트가 없습니다: " + name + "." + version);
+            }
+            experiments.put(name, new Experiment(version, Integer.parseInt(versionPercent[1].trim())));
+        }
+        log.info("Prompt templates loaded. count={}, experiments={}", templates.size(), experiments);
+    }
+
+    // 사용자와 무관한 호출(챌린지 추천 등)은 기본 버전
+    public PromptTemplate get(String name) {
+        return select(name, defaultVersion);
+    }
+
+    public PromptTemplate get(String name, Long userId) {
+        Experiment experiment = experiments.get(name);
+        if (experiment != null && userId != null
+                && Math.floorMod(Objects.hash(userId, name), 100) < experiment.percent()) {
+            return select(name, experiment.version());
+        }
+        return select(name, defaultVersion);
+    }
+
+    private PromptTemplate select(String name, String version) {
+        PromptTemplate template = templates.get(key(name, version));
+        if (template == null) {
+            throw new IllegalStateException("프롬프트 템플릿이 없습니다: " + name + "." + version);
+        }
+        meterRegistry.counter("ai.prompt.renders", "template", name, "version", version).increment();
+        return template;
+    }
+
+    private static String key(String name, String version) {
+        return name + "." + version;
+    }
+}
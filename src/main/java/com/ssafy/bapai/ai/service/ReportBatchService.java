@@ -0,0 +1,278 @@
+package com.ssafy.bapai.ai.service;
+
+import com.ssafy.bapai.ai.dto.AiReportResponse;
+import com.ssafy.bapai.diet.dao.DietDao;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * 주간/월간 리포트 야간 선계산 배치
+ * - 대상: 최근 1개월 내 diet 기록이 있는 사용자 x (WEEKLY, MONTHLY)
+ * - 결과는 getPeriodReport(실행 날짜) 가 report_log 에 저장 -> 당일 조회는 캐시 적중
+ *   (실행 날짜/화면 요청 모두 공용 Clock(app.time-zone) 기준이라 컨테이너 TZ 와 무관하게 같은 기간 키)
+ * - 워커 수(parallelism) + 초당 호출 수(rate)로 업스트림 부하 제한
+ * - 완료 항목은 Redis Set(ai:report-batch:done:{날짜})에 기록 -> 재시작 시 이어서 처리
+ * - 여러 노드 중 한 곳만 실행 (실행마다 토큰을 건 Redis 락, 항목 처리마다 TTL 연장)
+ * - 스케줄러 스레드는 배치 전용 실행 스레드에 넘기고 바로 반환 (기본 스케줄러는 1스레드라
+ *   배치가 도는 몇 시간 동안 물 섭취 flush 등 다른 @Scheduled 작업이 멈추지 않도록)
+ */
+@Slf4j
+@Service
+public class ReportBatchService {
+
+    private static final String[] TYPES = {"WEEKLY", "MONTHLY"};
+    private static final String LOCK_PREFIX = "ai:report-batch:lock:";
+    private static final String DONE_PREFIX = "ai:report-batch:done:";
+    private static final String STATE_PREFIX = "ai:report-batch:state:";
+    private static final String STATE_RUNNING = "RUNNING";
+    private static final String STATE_FINISHED = "FINISHED";
+    private static final Duration KEY_TTL = Duration.ofDays(2);
+
+    // 내가 잡은 락일 때만 삭제/연장 (락이 만료돼 다른 노드가 잡은 뒤에 건드리지 않도록)
+    private static final DefaultRedisScript<Long> UNLOCK_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then "
+                    + "return redis.call('del', KEYS[1]) else return 0 end", Long.class);
+    private static final DefaultRedisScript<Long> RENEW_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then "
+                    + "return redis.call('pexpire', KEYS[1], ARGV[2]) else return 0 end",
+            Long.class);
+
+    private final AiService aiService;
+    private final DietDao dietDao;
+    private final StringRedisTemplate redisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Clock clock;
+    private final boolean enabled;
+    private final int parallelism;
+    private final long intervalNanos;
+    private final Duration lockTtl;
+
+    private final AtomicInteger total = new AtomicInteger();
+    private final AtomicInteger completed = new AtomicInteger();
+    private final AtomicLong nextSlot = new AtomicLong();
+    private final ExecutorService runner;
+
+    public ReportBatchService(AiService aiService,
+                              DietDao dietDao,
+                              StringRedisTemplate redisTemplate,
+                              MeterRegistry meterRegistry,
+                              Clock clock,
+                              @Value("${app.ai.report-batch.enabled:true}") boolean enabled,
+                              @Value("${app.ai.report-batch.parallelism:4}") int parallelism,
+                              @Value("${app.ai.report-batch.rate-per-second:2}") double ratePerSecond,
+                              @Value("${app.ai.report-batch.lock-minutes:5}") long lockMinutes) {
+        this.aiService = aiService;
+        this.dietDao = dietDao;
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+        this.enabled = enabled;
+        this.parallelism = parallelism;
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+        this.lockTtl = Duration.ofMinutes(lockMinutes);
+
+        this.runner = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "ai-report-batch-runner");
+            t.setDaemon(true);
+            return t;
+        });
+
+        Gauge.builder("ai.report.batch.total", total, AtomicInteger::get).register(meterRegistry);
+        Gauge.builder("ai.report.batch.completed", completed, AtomicInteger::get)
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${app.ai.report-batch.cron:0 0 4 * * *}",
+            zone = "${app.time-zone:Asia/Seoul}")
+    public void runNightly() {
+        if (enabled) {
+            LocalDate today = LocalDate.now(clock);
+            runner.execute(() -> run(today));
+        }
+    }
+
+    // 배치 도중 노드가 죽으면 하트비트가 끊겨 락이 만료되고, 그 뒤 아무 노드에서나 이어서 처리
+    @Scheduled(initialDelayString = "${app.ai.report-batch.resume-check-ms:600000}",
+            fixedDelayString = "${app.ai.report-batch.resume-check-ms:600000}")
+    public void resumeIfInterrupted() {
+        if (!enabled) {
+            return;
+        }
+        LocalDate today = LocalDate.now(clock);
+        try {
+            if (STATE_RUNNING.equals(redisTemplate.opsForValue().get(STATE_PREFIX + today))
+                    && !Boolean.TRUE.equals(redisTemplate.hasKey(LOCK_PREFIX + today))) {
+                log.info("Resuming interrupted report batch. date={}", today);
+                runner.execute(() -> run(today));
+            }
+        } catch (Exception e) {
+            log.warn("Report batch resume check failed. err={}", e.getMessage());
+        }
+    }
+
+    public void run(LocalDate runDate) {
+        String lockKey = LOCK_PREFIX + runDate;
+        String token = UUID.randomUUID().toString();
+        Boolean locked = redisTemplate.opsForValue().setIfAbsent(lockKey, token, lockTtl);
+        if (!Boolean.TRUE.equals(locked)) {
+            log.info("Report batch already running on another node. date={}", runDate);
+            return;
+        }
+
+        String doneKey = DONE_PREFIX + runDate;
+        String stateKey = STATE_PREFIX + runDate;
+        ExecutorService workers = null;
+        try {
+            if (STATE_FINISHED.equals(redisTemplate.opsForValue().get(stateKey))) {
+                return;
+            }
+            redisTemplate.opsForValue().set(stateKey, STATE_RUNNING, KEY_TTL);
+
+            List<Long> userIds = dietDao.selectActiveUserIds(
+                    runDate.minusMonths(1).toString(), runDate.toString());
+            Set<String> done = redisTemplate.opsForSet().members(doneKey);
+
+            List<String> pending = new ArrayList<>();
+            for (Long userId : userIds) {
+                for (String type : TYPES) {
+                    String item = userId + ":" + type;
+                    if (done == null || !done.contains(item)) {
+                        pending.add(item);
+                    }
+                }
+            }
+
+            total.set(userIds.size() * TYPES.length);
+            completed.set(total.get() - pending.size());
+            log.info("Report batch started. date={}, total={}, pending={}",
+                    runDate, total.get(), pending.size());
+
+            long startedAt = System.nanoTime();
+            AtomicInteger seq = new AtomicInteger();
+            workers = Executors.newFixedThreadPool(parallelism, r -> {
+                Thread t = new Thread(r, "ai-report-batch-" + seq.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+
+            List<Future<?>> futures = new ArrayList<>(pending.size());
+            for (String item : pending) {
+                futures.add(workers.submit(() -> process(item, runDate, doneKey, lockKey, token)));
+            }
+            for (Future<?> f : futures) {
+                f.get();
+            }
+
+            redisTemplate.opsForValue().set(stateKey, STATE_FINISHED, KEY_TTL);
+            long seconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startedAt));
+            log.info("Report batch finished. date={}, processed={}, elapsed={}s, throughput={}/min",
+                    runDate, pending.size(), seconds, pending.size() * 60 / seconds);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Report batch interrupted. date={}", runDate);
+        } catch (Exception e) {
+            log.error("Report batch failed. date={}, err={}", runDate, e.getMessage(), e);
+        } finally {
+            if (workers != null) {
+                workers.shutdownNow();
+            }
+            unlock(lockKey, token);
+        }
+    }
+
+    private void process(String item, LocalDate runDate, String doneKey, String lockKey,
+                         String token) {
+        int sep = item.indexOf(':');
+        Long userId = Long.valueOf(item.substring(0, sep));
+        String type = item.substring(sep + 1);
+
+        acquireRateSlot();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String result = "ok";
+        try {
+            // 화면 요청과 같은 기간 키 (runDate 기준) 로 저장
+            AiReportResponse res = aiService.getPeriodReport(userId, type, runDate);
+            if (aiService.isFallbackMessage(res.getAiAnalysis())) {
+                // 저장되지 않은 실패 결과 -> done 에 넣지 않아 다음 실행/재시작 때 재시도
+                result = "fallback";
+            } else {
+                redisTemplate.opsForSet().add(doneKey, item);
+                redisTemplate.expire(doneKey, KEY_TTL);
+            }
+        } catch (Exception e) {
+            result = "error";
+            log.warn("Report batch item failed. userId={}, type={}, err={}",
+                    userId, type, e.getMessage());
+        } finally {
+            renew(lockKey, token); // 하트비트: 진행 중인 동안 락 유지
+            sample.stop(meterRegistry.timer("ai.report.batch.item", "type", type, "result", result));
+            meterRegistry.counter("ai.report.batch.processed", "type", type, "result", result)
+                    .increment();
+            int n = completed.incrementAndGet();
+            if (n % 100 == 0) {
+                log.info("Report batch progress. {}/{}", n, total.get());
+            }
+        }
+    }
+
+    private void renew(String lockKey, String token) {
+        try {
+            Long renewed = redisTemplate.execute(RENEW_SCRIPT, List.of(lockKey), token,
+                    String.valueOf(lockTtl.toMillis()));
+            if (!Long.valueOf(1).equals(renewed)) {
+                log.warn("Report batch lock lost. key={}", lockKey);
+            }
+        } catch (Exception e) {
+            log.warn("Report batch lock renew failed. key={}, err={}", lockKey, e.getMessage());
+        }
+    }
+
+    private void unlock(String lockKey, String token) {
+        try {
+            redisTemplate.execute(UNLOCK_SCRIPT, List.of(lockKey), token);
+        } catch (Exception e) {
+            log.warn("Report batch lock release failed. key={}, err={}", lockKey, e.getMessage());
+        }
+    }
+
+    // 진행 중이던 배치는 인터럽트 -> finally 에서 락 해제, 남은 항목은 다른 노드/재기동 후 이어서 처리
+    @PreDestroy
+    public void shutdown() {
+        runner.shutdownNow();
+    }
+
+    // 초당 rate 개 호출이 되도록 각 작업에 시작 시각 슬롯을 배정하고 그때까지 대기
+    private void acquireRateSlot() {
+        long now = System.nanoTime();
+        long slot = nextSlot.getAndUpdate(prev -> Math.max(prev, now) + intervalNanos);
+        long waitNanos = Math.max(slot, now) - now;
+        if (waitNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.ssafy.bapai.ai.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ssafy.bapai.ai.dto.ReportJobDto;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * 주간/월간/갭 리포트 비동기 생성
+ * - 요청 스레드는 jobId 만 받고 즉시 반환 (LLM 대기 동안 Tomcat 스레드 점유 X)
+ * - 고정 크기 워커 풀 + 유한 큐 (가득 차면 RejectedExecutionException)
+ * - 상태는 Redis 에 보관(폴링), 완료 시 STOMP 개인 큐(/user/queue/ai/report)로 요청자에게만 푸시
+ * - 결과 자체는 기존과 동일하게 AiService 가 report_log 에 저장
+ */
+@Slf4j
+@Service
+public class ReportJobService {
+
+    public static final String STATUS_QUEUED = "QUEUED";
+    public static final String STATUS_RUNNING = "RUNNING";
+    public static final String STATUS_DONE = "DONE";
+    public static final String STATUS_FAILED = "FAILED";
+
+    private static final String KEY_PREFIX = "ai:job:";
+    private static final String PUSH_DESTINATION = "/queue/ai/report";
+    private static final Duration JOB_TTL = Duration.ofHours(1);
+
+    private final AiService aiService;
+    private final StringRedisTemplate redisTemplate;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ObjectMapper objectMapper;
+    private final ThreadPoolExecutor executor;
+    private final MeterRegistry meterRegistry;
+    private final long shutdownTimeoutSeconds;
+
+    public ReportJobService(AiService aiService,
+                            StringRedisTemplate redisTemplate,
+                            SimpMessagingTemplate messagingTemplate,
+                            ObjectMapper objectMapper,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.ai.report-jobs.workers:4}") int workers,
+                            @Value("${app.ai.report-jobs.queue-capacity:100}") int queueCapacity,
+                            @Value("${app.ai.report-jobs.shutdown-timeout-seconds:30}")
+                            long shutdownTimeoutSeconds) {
+        this.aiService = aiService;
+        this.redisTemplate = redisTemplate;
+        this.messagingTemplate = messagingTemplate;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.shutdownTimeoutSeconds = shutdownTimeoutSeconds;
+
+        AtomicInteger seq = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "ai-report-job-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("ai.report.jobs.queue.depth", executor, e -> e.getQueue().size())
+                .register(meterRegistry);
+        Gauge.builder("ai.report.jobs.active", executor, ThreadPoolExecutor::getActiveCount)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 리포트 생성 작업 등록. groupId 가 있으면 갭 분석, 없으면 주간/월간 리포트.
+     * 큐가 가득 차면 RejectedExecutionException.
+     * 등록 직후 워커가 job 을 바로 수정하므로 호출 측에는 jobId 만 돌려줌 (상태는 항상 QUEUED)
+     */
+    public String submit(Long userId, String type, Long groupId) {
+        String reportType = (groupId != null) ? "GAP_ANALYSIS" : type;
+        ReportJobDto job = ReportJobDto.builder()
+                .jobId(UUID.randomUUID().toString())
+                .userId(userId)
+                .reportType(reportType)
+                .groupId(groupId)
+                .status(STATUS_QUEUED)
+                .createdAt(System.currentTimeMillis())
+                .build();
+        save(job);
+
+        long enqueuedAt = System.nanoTime();
+        try {
+            executor.execute(() -> run(job, type, enqueuedAt));
+        } catch (RejectedExecutionException e) {
+            // 실행되지 않을 작업이 QUEUED 로 남아 폴링이 끝나지 않는 것 방지
+            delete(job);
+            throw e;
+        }
+        return job.getJobId();
+    }
+
+    public ReportJobDto getJob(String jobId) {
+        try {
+            String json = redisTemplate.opsForValue().get(KEY_PREFIX + jobId);
+            return (json == null) ? null : objectMapper.readValue(json, ReportJobDto.class);
+        } catch (Exception e) {
+            log.warn("Report job read failed. jobId={}, err={}", jobId, e.getMessage());
+            return null;
+        }
+    }
+
+    private void run(ReportJobDto job, String type, long enqueuedAt) {
+        Timer.builder("ai.report.jobs.wait")
+                .tag("type", job.getReportType())
+                .register(meterRegistry)
+                .record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+
+        job.setStatus(STATUS_RUNNING);
+        save(job);
+
+        long startedAt = System.nanoTime();
+        try {
+            Object result = (job.getGroupId() != null)
+                    ? aiService.getGapAnalysis(job.getUserId(), job.getGroupId(), type)
+                    : aiService.getPeriodReport(job.getUserId(), type);
+            job.setResult(result);
+            job.setStatus(STATUS_DONE);
+        } catch (Exception e) {
+            log.error("Report job failed. jobId={}, err={}", job.getJobId(), e.getMessage(), e);
+            job.setStatus(STATUS_FAILED);
+            job.setMessage("리포트 생성에 실패했습니다. 잠시 후 다시 시도해주세요.");
+        } finally {
+            Timer.builder("ai.report.jobs.run")
+                    .tag("type", job.getReportType())
+                    .tag("status", job.getStatus())
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        }
+
+        job.setFinishedAt(System.currentTimeMillis());
+        save(job);
+        push(job);
+    }
+
+    private void save(ReportJobDto job) {
+        try {
+            redisTemplate.opsForValue().set(KEY_PREFIX + job.getJobId(),
+                    objectMapper.writeValueAsString(job), JOB_TTL);
+        } catch (Exception e) {
+            log.warn("Report job save failed. jobId={}, err={}", job.getJobId(), e.getMessage());
+        }
+    }
+
+    private void delete(ReportJobDto job) {
+        try {
+            redisTemplate.delete(KEY_PREFIX + job.getJobId());
+        } catch (Exception e) {
+            log.warn("Report job delete failed. jobId={}, err={}", job.getJobId(), e.getMessage());
+        }
+    }
+
+    private void push(ReportJobDto job) {
+        try {
+            messagingTemplate.convertAndSendToUser(String.valueOf(job.getUserId()), PUSH_DESTINATION, job);
+        } catch (Exception e) {
+            log.warn("Report job push failed. jobId={}, err={}", job.getJobId(), e.getMessage());
+        }
+    }
+
+    // 진행 중인 작업이 결과를 저장/푸시할 시간을 주고, 넘기면 중단
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(shutdownTimeoutSeconds, TimeUnit.SECONDS)) {
+                log.warn("Report jobs did not finish before shutdown. dropped={}",
+                        executor.shutdownNow().size());
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.ssafy.bapai.ai.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * 동일 리포트(userId, type, start, end) 동시 생성 합치기 (single-flight)
+ * 1) 노드 내: 같은 키의 진행 중 작업이 있으면 그 결과를 같이 기다림
+ * 2) 노드 간: Redis 락(SET NX PX)을 잡은 노드만 LLM 호출/INSERT,
+ *    나머지는 report_log 에 결과가 생길 때까지(ready) 폴링 후 캐시 경로로 조회
+ * - 락 대기 시간을 넘기거나 Redis 장애면 그냥 직접 생성 (가용성 우선)
+ * - compute 는 반드시 "이미 저장된 리포트가 있으면 그대로 반환" 하는 구조여야 함
+ * - SSE 스트리밍(stream)도 같은 키를 공유: 뒤따르는 요청은 리더 종료 후 compute 를 다시 호출해
+ *   저장된 결과를 한 청크로 받음 (동기/스트리밍이 섞여도 LLM 호출/INSERT 1회)
+ */
+@Slf4j
+@Component
+public class ReportSingleFlight {
+
+    private static final String LOCK_PREFIX = "ai:report:lock:";
+
+    // 내가 잡은 락일 때만 삭제
+    private static final DefaultRedisScript<Long> UNLOCK_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then "
+                    + "return redis.call('del', KEYS[1]) else return 0 end", Long.class);
+
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final StringRedisTemplate redisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Duration lockTtl;
+    private final long pollMs;
+
+    public ReportSingleFlight(StringRedisTemplate redisTemplate,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.ai.report-lock.ttl-ms:150000}") long lockTtlMs,
+                              @Value("${app.ai.report-lock.poll-ms:500}") long pollMs) {
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+        this.lockTtl = Duration.ofMillis(lockTtlMs);
+        this.pollMs = pollMs;
+    }
+
+    public static String keyOf(Long userId, String type, String startDate, String endDate) {
+        return userId + ":" + type + ":" + startDate + ":" + endDate;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, Supplier<T> compute, BooleanSupplier ready) {
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            count("coalesced");
+            Object result;
+            try {
+                result = existing.join();
+            } catch (CompletionException e) {
+                throw (e.getCause() instanceof RuntimeException re) ? re : e;
+            }
+            // 스트리밍 리더는 값 없이 끝남 -> 저장된 결과를 캐시 경로로 조회
+            return (result != null) ? (T) result : compute.get();
+        }
+
+        try {
+            T result = computeWithLock(key, compute, ready);
+            mine.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    /**
+     * SSE 스트리밍용. 락 대기(폴링)는 boundedElastic 에서 수행, 스트림이 끝나거나 취소되면 락 해제.
+     * compute 는 저장된 리포트가 있으면 한 청크로 끝나는 Flux 여야 함
+     */
+    public Flux<String> stream(String key, Supplier<Flux<String>> compute, BooleanSupplier ready) {
+        return Flux.defer(() -> {
+            CompletableFuture<Object> mine = new CompletableFuture<>();
+            CompletableFuture<Object> existing = inFlight.putIfAbsent(key, mine);
+            if (existing != null) {
+                count("coalesced");
+                // 리더 성공/실패와 무관하게 종료 후 다시 compute (저장됐으면 캐시, 아니면 직접 생성)
+                return Mono.fromFuture(existing)
+                        .onErrorResume(e -> Mono.empty())
+                        .publishOn(Schedulers.boundedElastic()) // compute 는 DB 조회(블로킹)
+                        .thenMany(Flux.defer(compute));
+            }
+
+            String lockKey = LOCK_PREFIX + key;
+            return Mono.fromCallable(() -> Optional.ofNullable(awaitLock(key, lockKey, ready)))
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .flatMapMany(token -> compute.get()
+                            .doFinally(signal -> token.ifPresent(t -> unlock(lockKey, t))))
+                    .doFinally(signal -> {
+                        mine.complete(null);
+                        inFlight.remove(key, mine);
+                    });
+        });
+    }
+
+    private <T> T computeWithLock(String key, Supplier<T> compute, BooleanSupplier ready) {
+        String lockKey = LOCK_PREFIX + key;
+        String token = awaitLock(key, lockKey, ready);
+        if (token == null) {
+            return compute.get();
+        }
+        try {
+            return compute.get();
+        } finally {
+            unlock(lockKey, token);
+        }
+    }
+
+    /**
+     * 락을 잡으면 토큰(리더, 반드시 unlock), 다른 노드 결과가 저장됐거나 대기 시간을 넘기면 null.
+     * null 이어도 compute 는 호출함 (저장된 결과가 있으면 캐시 경로로 바로 반환)
+     */
+    private String awaitLock(String key, String lockKey, BooleanSupplier ready) {
+        long deadline = System.currentTimeMillis() + lockTtl.toMillis();
+
+        while (true) {
+            String token = tryLock(lockKey);
+            if (token != null) {
+                count("leader");
+                return token;
+            }
+
+            // 다른 노드가 생성 중 -> 결과가 저장되면 compute 가 캐시 경로로 바로 반환
+            if (ready.getAsBoolean()) {
+                count("remote");
+                return null;
+            }
+            if (System.currentTimeMillis() >= deadline) {
+                count("lock_timeout");
+                log.warn("Report lock wait timed out. key={}", key);
+                return null;
+            }
+            try {
+                Thread.sleep(pollMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+    }
+
+    // 획득 시 토큰, 다른 노드가 보유 중이면 null. Redis 장애 시에는 락 없이 진행하도록 토큰 반환
+    private String tryLock(String lockKey) {
+        String token = UUID.randomUUID().toString();
+        try {
+            Boolean ok = redisTemplate.opsForValue().setIfAbsent(lockKey, token, lockTtl);
+            return Boolean.TRUE.equals(ok) ? token : null;
+        } catch (Exception e) {
+            log.warn("Report lock unavailable, computing without lock. key={}, err={}",
+                    lockKey, e.getMessage());
+            count("lock_error");
+            return token;
+        }
+    }
+
+    private void unlock(String lockKey, String token) {
+        try {
+            redisTemplate.execute(UNLOCK_SCRIPT, List.of(lockKey), token);
+        } catch (Exception e) {
+            log.warn("Report lock release failed. key={}, err={}", lockKey, e.getMessage());
+        }
+    }
+
+    private void count(String result) {
+        meterRegistry.counter("ai.report.singleflight", "result", result).increment();
+    }
+}
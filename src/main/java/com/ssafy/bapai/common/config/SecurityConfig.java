@@ -1,6 +1,7 @@
 package com.ssafy.bapai.common.config;
 
 import com.ssafy.bapai.common.security.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.http.HttpServletResponse;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
@@ -36,6 +37,8 @@ public class SecurityConfig {
                 .sessionManagement(
                         session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
+                        // SSE/스트리밍 응답의 ASYNC 재디스패치 (최초 REQUEST 에서 이미 인증됨)
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers("/v3/api-docs/**", "/swagger-ui/**", "/swagger-ui.html",
                                 "/api/auth/**", "/api/foods/**", "/actuator/**", "/ws-stomp/**",
                                 "/ws-stomp",
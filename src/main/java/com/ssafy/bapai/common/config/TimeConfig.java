@@ -0,0 +1,20 @@
+package com.ssafy.bapai.common.config;
+
+import java.time.Clock;
+import java.time.ZoneId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 서비스 기준 시간대 (컨테이너 TZ 와 무관하게 "오늘" 을 같은 날짜로 계산)
+ * - 야간 배치와 화면 요청이 같은 날짜 키(report_log 기간 등)를 쓰도록 공용 Clock 으로 주입
+ */
+@Configuration
+public class TimeConfig {
+
+    @Bean
+    public Clock clock(@Value("${app.time-zone:Asia/Seoul}") String timeZone) {
+        return Clock.system(ZoneId.of(timeZone));
+    }
+}
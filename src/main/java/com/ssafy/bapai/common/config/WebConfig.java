@@ -1,18 +1,30 @@
-//
-
 package com.ssafy.bapai.common.config;
 
+import com.ssafy.bapai.ai.config.AiRateLimitInterceptor;
+import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
+@RequiredArgsConstructor
 public class WebConfig implements WebMvcConfigurer {
 
+    private final AiRateLimitInterceptor aiRateLimitInterceptor;
+
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
         String uploadPath = System.getProperty("user.dir") + "/uploads/";
         registry.addResourceHandler("/images/**")
                 .addResourceLocations("file:" + uploadPath);
     }
-}
\ No newline at end of file
+
+    // AI 호출 경로 사용량 제한 (경로별 용도 구분은 인터셉터에서)
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(aiRateLimitInterceptor)
+                .addPathPatterns("/api/ai/**", "/api/diet-logs/analyze",
+                        "/api/diet-logs/daily/*", "/api/diet-logs/stats/period");
+    }
+}
@@ -18,8 +18,10 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        config.enableSimpleBroker("/sub");
+        config.enableSimpleBroker("/sub", "/queue");
         config.setApplicationDestinationPrefixes("/app");
+        // 개인 메시지: 클라이언트는 /user/queue/** 구독, 서버는 convertAndSendToUser(userId, "/queue/**")
+        config.setUserDestinationPrefix("/user");
     }
 
     @Override
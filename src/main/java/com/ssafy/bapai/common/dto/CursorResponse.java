@@ -0,0 +1,18 @@
+package com.ssafy.bapai.common.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// 커서(keyset) 기반 목록 응답 (무한 스크롤용)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorResponse<T> {
+
+    private List<T> list;         // 실제 데이터 목록
+    private String nextCursor;    // 다음 요청에 그대로 넘길 값 (마지막 페이지면 null)
+    private boolean hasNext;      // 다음 페이지가 있는지 여부
+    private long totalElements;   // 전체 데이터 개수 (캐시된 근사값)
+}
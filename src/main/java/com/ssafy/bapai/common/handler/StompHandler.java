@@ -2,6 +2,7 @@ package com.ssafy.bapai.common.handler;
 
 import com.ssafy.bapai.common.util.JwtUtil;
 import lombok.RequiredArgsConstructor;
+import java.util.List;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.messaging.Message;
@@ -10,6 +11,9 @@ import org.springframework.messaging.MessageDeliveryException;
 import org.springframework.messaging.simp.stomp.StompCommand;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 
 @Slf4j
@@ -23,7 +27,12 @@ public class StompHandler implements ChannelInterceptor {
 
     @Override
     public Message<?> preSend(Message<?> message, MessageChannel channel) {
-        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(message);
+        // setUser 가 실제 메시지에 반영되도록 원본 accessor 사용
+        StompHeaderAccessor accessor =
+                MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null) {
+            accessor = StompHeaderAccessor.wrap(message);
+        }
 
         // 1. CONNECT 시점에 보안 검증 및 Redis 등록
         if (StompCommand.CONNECT.equals(accessor.getCommand())) {
@@ -35,6 +44,11 @@ public class StompHandler implements ChannelInterceptor {
                 String jwt = token.substring(7);
                 if (jwtUtil.validateToken(jwt)) {
                     String userId = String.valueOf(jwtUtil.getUserId(jwt));
+                    String role = jwtUtil.getRole(jwt);
+
+                    // ✅ 세션 Principal = userId -> convertAndSendToUser(userId, ...) 는 본인 세션에만 전달
+                    accessor.setUser(new UsernamePasswordAuthenticationToken(userId, null,
+                            List.of(new SimpleGrantedAuthority(role != null ? role : "ROLE_USER"))));
 
                     if (groupId != null) {
                         // 세션 속성에 저장 (DISCONNECT 시 사용)
@@ -55,7 +69,16 @@ public class StompHandler implements ChannelInterceptor {
             }
         }
 
-        // 2. DISCONNECT 시 Redis에서 제거
+        // 2. 개인 큐(/queue/**)는 /user/queue/** 로만 구독 (세션별 주소로 직접 구독 차단)
+        else if (StompCommand.SUBSCRIBE.equals(accessor.getCommand())) {
+            String destination = accessor.getDestination();
+            if (destination != null && destination.startsWith("/queue/")) {
+                log.warn("❌ STOMP 구독 거부: {}", destination);
+                throw new MessageDeliveryException("구독할 수 없는 경로입니다.");
+            }
+        }
+
+        // 3. DISCONNECT 시 Redis에서 제거
         else if (StompCommand.DISCONNECT.equals(accessor.getCommand())) {
             String groupId = (String) accessor.getSessionAttributes().get("groupId");
             String userId = (String) accessor.getSessionAttributes().get("userId");
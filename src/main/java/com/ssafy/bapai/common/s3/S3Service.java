@@ -2,23 +2,58 @@ package com.ssafy.bapai.common.s3;
 
 import io.awspring.cloud.s3.ObjectMetadata;
 import io.awspring.cloud.s3.S3Template;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.UUID;
-import lombok.RequiredArgsConstructor;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetUrlRequest;
 
 @Service
-@RequiredArgsConstructor
 public class S3Service {
 
     private final S3Template s3Template;
+    private final S3Client s3Client;
+
+    // 업로드 전용 유한 풀 (가득 차면 호출 스레드에서 직접 업로드 -> 자연스러운 역압)
+    private final ThreadPoolExecutor uploadExecutor;
 
     @Value("${spring.cloud.aws.s3.bucket}")
     private String bucket;
 
+    public S3Service(S3Template s3Template,
+                     S3Client s3Client,
+                     MeterRegistry meterRegistry,
+                     @Value("${app.s3.upload.workers:8}") int workers,
+                     @Value("${app.s3.upload.queue-capacity:100}") int queueCapacity) {
+        this.s3Template = s3Template;
+        this.s3Client = s3Client;
+
+        AtomicInteger seq = new AtomicInteger();
+        this.uploadExecutor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "s3-upload-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        new ExecutorServiceMetrics(uploadExecutor, "s3-upload", Tags.empty())
+                .bindTo(meterRegistry);
+    }
+
     public String uploadFile(MultipartFile file, String folderName) throws IOException {
         // 파일명 중복 방지를 위한 UUID 생성
         String originalFileName = file.getOriginalFilename();
@@ -31,6 +66,41 @@ public class S3Service {
         }
 
         // 업로드된 파일의 URL 반환
-        return s3Template.download(bucket, key).getURL().toString();
+        return urlOf(key);
+    }
+
+    /**
+     * 이미 메모리에 읽어 둔 바이트 업로드 (AI 분석 등과 버퍼 공유)
+     */
+    public String upload(byte[] bytes, String originalFileName, String contentType,
+                         String folderName) {
+        String key = folderName + "/" + UUID.randomUUID() + "_" + originalFileName;
+
+        s3Template.upload(bucket, key, new ByteArrayInputStream(bytes),
+                ObjectMetadata.builder()
+                        .contentType(contentType)
+                        .contentLength((long) bytes.length)
+                        .build());
+
+        return urlOf(key);
+    }
+
+    // 다른 작업(AI 분석 등)과 병렬로 업로드
+    public CompletableFuture<String> uploadAsync(byte[] bytes, String originalFileName,
+                                                 String contentType, String folderName) {
+        return CompletableFuture.supplyAsync(
+                () -> upload(bytes, originalFileName, contentType, folderName), uploadExecutor);
+    }
+
+    // 객체 URL 을 로컬에서 계산 (별도 S3 요청 없음)
+    private String urlOf(String key) {
+        return s3Client.utilities()
+                .getUrl(GetUrlRequest.builder().bucket(bucket).key(key).build())
+                .toString();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        uploadExecutor.shutdown();
     }
-}
\ No newline at end of file
+}
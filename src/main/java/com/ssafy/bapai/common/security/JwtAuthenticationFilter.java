@@ -48,12 +48,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 // 3. 토큰 검증
                 if (jwtUtil.validateToken(token)) {
                     Long userId = jwtUtil.getUserId(header);
+                    // 토큰의 role 클레임 그대로 사용 (AI 사용량 제한의 요금제 구분), 없으면 ROLE_USER
+                    String role = jwtUtil.getRole(header);
                     System.out.println("✅ 토큰 검증 성공! ID: " + userId);
 
                     // 인증 객체 생성 & 저장
                     UsernamePasswordAuthenticationToken authentication =
                             new UsernamePasswordAuthenticationToken(
-                                    userId, null, List.of(new SimpleGrantedAuthority("ROLE_USER")));
+                                    userId, null, List.of(new SimpleGrantedAuthority(
+                                    (role != null) ? role : "ROLE_USER")));
 
                     authentication.setDetails(
                             new WebAuthenticationDetailsSource().buildDetails(request));
@@ -60,6 +60,14 @@ public class JwtUtil {
         return Long.parseLong(claims.getSubject());
     }
 
+    // 토큰에서 권한(ROLE_USER / ROLE_GUEST) 꺼내기, 없으면 null
+    public String getRole(String token) {
+        if (token != null && token.startsWith("Bearer ")) {
+            token = token.substring(7);
+        }
+        return parseClaims(token).get("role", String.class);
+    }
+
     // 4. 토큰 유효성 검증
     public boolean validateToken(String token) {
         try {
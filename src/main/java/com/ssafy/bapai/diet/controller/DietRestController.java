@@ -7,15 +7,23 @@ import com.ssafy.bapai.common.util.JwtUtil;
 import com.ssafy.bapai.diet.dto.DietDetailDto;
 import com.ssafy.bapai.diet.dto.DietDto;
 import com.ssafy.bapai.diet.dto.StreakDto;
+import com.ssafy.bapai.diet.service.DietExportService;
 import com.ssafy.bapai.diet.service.DietService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.Callable;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -30,7 +38,11 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @Slf4j
 @RestController
@@ -43,6 +55,7 @@ public class DietRestController {
     private final JwtUtil jwtUtil;
     private final S3Service s3Service;
     private final AiService aiService;
+    private final DietExportService dietExportService;
 
     @Operation(summary = "1단계: 식단 이미지 분석", description = "이미지를 보내면 AI가 분석한 음식 리스트와 영양소를 반환합니다.")
     @PostMapping(value = "/analyze", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
@@ -66,8 +79,8 @@ public class DietRestController {
         }
         System.out.println("========================================");
 
-        jwtUtil.getUserId(token.substring(7));
-        return ResponseEntity.ok(dietService.analyzeDiet(file, hint));
+        Long userId = jwtUtil.getUserId(token.substring(7));
+        return ResponseEntity.ok(dietService.analyzeDiet(userId, file, hint));
     }
 
     @Operation(summary = "2단계: 식단 최종 등록 (파라미터 방식)", description = "프론트엔드에서 보내는 개별 데이터를 하나씩 받아서 저장합니다.")
@@ -177,7 +190,9 @@ public class DietRestController {
             @RequestParam(required = false) String date,
             @RequestParam(required = false) String startDate,
             @RequestParam(required = false) String endDate,
-            @RequestParam(required = false) String month) {
+            @RequestParam(required = false) String month,
+            @Parameter(description = "기간 조회 시 일별 합계만 (음식 목록 제외, 달력/통계용)")
+            @RequestParam(defaultValue = "false") boolean summaryOnly) {
 
         Long userId = jwtUtil.getUserId(token.substring(7));
 
@@ -188,7 +203,8 @@ public class DietRestController {
 
         // 2. 주간 조회 (1~7 키값 Map 반환)
         if (startDate != null && endDate != null) {
-            return ResponseEntity.ok(dietService.getPeriodDietLogs(userId, startDate, endDate));
+            return ResponseEntity.ok(dietService.getPeriodDietLogs(userId, startDate, endDate,
+                    summaryOnly));
         }
 
         // 3. 월간 조회 (1~31 키값 Map 반환)
@@ -196,13 +212,84 @@ public class DietRestController {
             java.time.YearMonth ym = java.time.YearMonth.parse(month);
             String start = ym.atDay(1).toString();
             String end = ym.atEndOfMonth().toString();
-            return ResponseEntity.ok(dietService.getPeriodDietLogs(userId, start, end));
+            return ResponseEntity.ok(dietService.getPeriodDietLogs(userId, start, end, summaryOnly));
         }
 
-        // 4. 파라미터 없으면 전체 리스트 반환 (기존 유지)
+        // 4. 파라미터 없으면 최근 식단 리스트 (최대 500건, 전체 이력은 /me/export)
         return ResponseEntity.ok(dietService.getAllDiets(userId));
     }
 
+    @Operation(summary = "내 식단 전체 이력 내보내기", description = "NDJSON(식단 1건당 1줄) 또는 CSV(음식 1개당 1행)로 스트리밍 다운로드합니다. gzip=true 면 .gz 파일로 받습니다.")
+    @GetMapping("/me/export")
+    public ResponseEntity<?> exportMyDietLogs(
+            @Parameter(hidden = true) @RequestHeader("Authorization") String token,
+            @Parameter(hidden = true) HttpServletRequest request,
+            @Parameter(description = "형식: ndjson, csv") @RequestParam(defaultValue = "ndjson") String format,
+            @Parameter(description = "gzip 압축 여부") @RequestParam(defaultValue = "false") boolean gzip,
+            @Parameter(description = "시작일 (YYYY-MM-DD, 선택)") @RequestParam(required = false) String startDate,
+            @Parameter(description = "종료일 (YYYY-MM-DD, 선택)") @RequestParam(required = false) String endDate) {
+        Long userId = jwtUtil.getUserId(token.substring(7));
+
+        DietExportService.Format exportFormat;
+        try {
+            exportFormat = DietExportService.Format.valueOf(format.toUpperCase());
+            if (startDate != null) {
+                LocalDate.parse(startDate);
+            }
+            if (endDate != null) {
+                LocalDate.parse(endDate);
+            }
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("message", "format 은 ndjson/csv, 날짜는 YYYY-MM-DD 형식이어야 합니다."));
+        }
+        Runnable release = dietExportService.tryAcquire();
+        if (release == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "10")
+                    .body(Map.of("message", "내보내기 요청이 많습니다. 잠시 후 다시 시도해주세요."));
+        }
+        try {
+            // ✅ 본문이 실행되지 않고 끝나는 경우(비동기 실행 거절, 시작 전 타임아웃/오류)에도 자리 반납
+            WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor("dietExport",
+                    new CallableProcessingInterceptor() {
+                        @Override
+                        public <T> void afterCompletion(NativeWebRequest webRequest, Callable<T> task) {
+                            release.run();
+                        }
+                    });
+            return exportResponse(userId, startDate, endDate, exportFormat, gzip, release);
+        } catch (RuntimeException e) {
+            release.run();
+            throw e;
+        }
+    }
+
+    private ResponseEntity<StreamingResponseBody> exportResponse(Long userId, String startDate,
+                                                                 String endDate,
+                                                                 DietExportService.Format exportFormat,
+                                                                 boolean gzip, Runnable release) {
+        String fileName = "diet-history." + (exportFormat == DietExportService.Format.CSV ? "csv" : "ndjson")
+                + (gzip ? ".gz" : "");
+        MediaType contentType = gzip ? MediaType.parseMediaType("application/gzip")
+                : (exportFormat == DietExportService.Format.CSV)
+                        ? MediaType.parseMediaType("text/csv;charset=UTF-8")
+                        : MediaType.parseMediaType("application/x-ndjson;charset=UTF-8");
+
+        StreamingResponseBody body = out -> {
+            try {
+                dietExportService.export(userId, startDate, endDate, exportFormat, gzip, out);
+            } finally {
+                release.run();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(fileName).build().toString())
+                .body(body);
+    }
+
     @Operation(summary = "스트릭(연속 기록) 조회", description = "현재 스트릭과 역대 최장 스트릭을 반환합니다.")
     @GetMapping("/streak")
     public ResponseEntity<StreakDto> getStreak(@RequestHeader("Authorization") String token) {
@@ -222,6 +309,21 @@ public class DietRestController {
         return ResponseEntity.ok(dietService.getDietFeed(sort, size, page));
     }
 
+    @Operation(summary = "식단 커뮤니티 피드 조회 (무한 스크롤)", description = "응답의 nextCursor 를 다음 요청의 cursor 로 넘기면 이어서 조회합니다. 정렬을 바꾸면 cursor 없이 처음부터 요청하세요.")
+    @GetMapping("/feed/scroll")
+    public ResponseEntity<?> getDietFeedScroll(
+            @Parameter(description = "이전 응답의 nextCursor (첫 페이지는 생략)")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "한 번에 가져올 개수 (최대 50)") @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "정렬: latest, likes, comments, oldest")
+            @RequestParam(defaultValue = "latest") String sort) {
+        try {
+            return ResponseEntity.ok(dietService.getDietFeedScroll(sort, size, cursor));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
 
     @Operation(summary = "식단 상세 조회")
     @GetMapping("/{dietId}")
@@ -0,0 +1,27 @@
+package com.ssafy.bapai.diet.dao;
+
+import com.ssafy.bapai.diet.dto.DailyNutritionDto;
+import java.util.List;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+@Mapper
+public interface DailyNutritionDao {
+    // 1. 식단 변경 시 하루치 갱신
+    void refreshDay(@Param("userId") Long userId, @Param("date") String date);
+
+    void deleteDayIfEmpty(@Param("userId") Long userId, @Param("date") String date);
+
+    // 2. 기간 요약 조회
+    List<DailyNutritionDto> selectRange(@Param("userId") Long userId,
+                                        @Param("startDate") String startDate,
+                                        @Param("endDate") String endDate);
+
+    // 3. 백필 (사용자 단위 청크)
+    List<Long> selectDietUserIdsAfter(@Param("afterUserId") long afterUserId,
+                                      @Param("limit") int limit);
+
+    void deleteByUserIds(@Param("userIds") List<Long> userIds);
+
+    void rebuildByUserIds(@Param("userIds") List<Long> userIds);
+}
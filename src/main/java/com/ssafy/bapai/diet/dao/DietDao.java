@@ -2,10 +2,13 @@ package com.ssafy.bapai.diet.dao;
 
 import com.ssafy.bapai.diet.dto.DietDetailDto;
 import com.ssafy.bapai.diet.dto.DietDto;
+import com.ssafy.bapai.diet.dto.DietExportRowDto;
+import com.ssafy.bapai.diet.dto.WaterCountDto;
 import java.util.List;
 import java.util.Map;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
 
 @Mapper
 public interface DietDao {
@@ -20,10 +23,22 @@ public interface DietDao {
 
     List<DietDto> selectMonthlyDiets(@Param("userId") Long userId, @Param("month") String month);
 
-    List<DietDto> selectAllDiets(Long userId);
+    // 최근 limit 건 (식단 단위)
+    List<DietDto> selectAllDiets(@Param("userId") Long userId, @Param("limit") int limit);
+
+    // 전체 이력 스트리밍 (열린 세션/트랜잭션 안에서만 순회 가능)
+    Cursor<DietExportRowDto> selectDietExportRows(@Param("userId") Long userId,
+                                                  @Param("startDate") String startDate,
+                                                  @Param("endDate") String endDate);
+
+    // 기간 내 식단 기록이 있는 사용자 (리포트 야간 배치 대상)
+    List<Long> selectActiveUserIds(@Param("startDate") String startDate,
+                                   @Param("endDate") String endDate);
 
     DietDto selectDietDetail(Long dietId); // 상세 조회 (음식 목록 포함용)
 
+    DietDto selectDietOwnerDate(Long dietId); // diet_id, user_id, eat_date 만
+
     void updateDiet(DietDto dietDto);
 
     void deleteDiet(Long dietId);
@@ -48,6 +63,12 @@ public interface DietDao {
                                  @Param("limit") int limit,
                                  @Param("offset") int offset);
 
+    // 피드 keyset 페이지 (afterId == null 이면 첫 페이지)
+    List<DietDto> selectDietFeedAfter(@Param("sort") String sort,
+                                      @Param("afterCount") Integer afterCount,
+                                      @Param("afterId") Long afterId,
+                                      @Param("limit") int limit);
+
     //  전체 식단 개수 조회 (페이징용)
     int selectDietCount();
 
@@ -55,6 +76,8 @@ public interface DietDao {
     void updateWaterCountDelta(@Param("userId") Long userId, @Param("date") String date,
                                @Param("delta") int delta);
 
+    void upsertWaterCounts(List<WaterCountDto> counts);
+
     void updateWaterGoalDelta(@Param("userId") Long userId, @Param("date") String date,
                               @Param("delta") int delta);
 
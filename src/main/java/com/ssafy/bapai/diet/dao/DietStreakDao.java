@@ -0,0 +1,19 @@
+package com.ssafy.bapai.diet.dao;
+
+import com.ssafy.bapai.diet.dto.DietStreakDto;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+@Mapper
+public interface DietStreakDao {
+    DietStreakDto selectStreak(Long userId);
+
+    DietStreakDto selectStreakForUpdate(Long userId);
+
+    void upsertStreak(DietStreakDto streak);
+
+    void deleteStreak(Long userId);
+
+    // 해당 날짜 식단 수 (1 이면 새로 생긴 날, 0 이면 비워진 날)
+    int countDietsOnDate(@Param("userId") Long userId, @Param("date") String date);
+}
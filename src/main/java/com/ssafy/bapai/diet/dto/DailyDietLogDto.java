@@ -18,6 +18,7 @@ public class DailyDietLogDto {
     private double totalCarbs;
     private double totalProtein;
     private double totalFat;
+    private Double averageScore; // 점수(>0) 있는 식단 평균, 없으면 null
 
     // ★ 변경됨: 펼쳐진 리스트로 교체
     private List<DietLogItemDto> dietList;
@@ -0,0 +1,18 @@
+package com.ssafy.bapai.diet.dto;
+
+import lombok.Data;
+
+// daily_nutrition 집계 행 (사용자 x 날짜)
+@Data
+public class DailyNutritionDto {
+    private Long userId;
+    private String eatDate;
+    private int mealCount;
+    private int snackCount;
+    private double totalKcal;
+    private double totalCarbs;
+    private double totalProtein;
+    private double totalFat;
+    private int scoreSum;
+    private int scoreCount; // 점수(>0) 있는 식단 수
+}
@@ -0,0 +1,27 @@
+package com.ssafy.bapai.diet.dto;
+
+import lombok.Data;
+
+// 내보내기용 평면 행 (식단 1건 x 음식 1개, 음식 없는 식단은 food* 가 null)
+@Data
+public class DietExportRowDto {
+    private Long dietId;
+    private String eatDate;
+    private String time;
+    private String mealType;
+    private String dietImg;
+    private String memo;
+    private Double totalKcal;
+    private Double totalCarbs;
+    private Double totalProtein;
+    private Double totalFat;
+    private Integer score;
+    private String aiAnalysis;
+
+    private String foodName;
+    private Integer foodAmount;
+    private Double foodKcal;
+    private Double foodCarbs;
+    private Double foodProtein;
+    private Double foodFat;
+}
@@ -0,0 +1,16 @@
+package com.ssafy.bapai.diet.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// diet_streak 행 (currentStreak 는 lastDate 로 끝나는 연속 일수, 오늘 기준 판단은 서비스에서)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DietStreakDto {
+    private Long userId;
+    private int currentStreak;
+    private int longestStreak;
+    private String lastDate;
+}
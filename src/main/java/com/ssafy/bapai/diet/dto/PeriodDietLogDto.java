@@ -18,6 +18,7 @@ public class PeriodDietLogDto {
     private double totalCarbs;
     private double totalProtein;
     private double totalFat;
+    private Double averageScore; // 점수(>0) 있는 식단 평균, 없으면 null
 
     // 3. 기존의 일별 데이터 리스트 (Map 형태 유지)
     private Map<String, DailyDietLogDto> dailyLogs;
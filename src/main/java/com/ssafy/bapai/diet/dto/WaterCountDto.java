@@ -0,0 +1,15 @@
+package com.ssafy.bapai.diet.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Redis 에 모인 물 섭취 횟수 -> daily_log 일괄 반영용 (절대값)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WaterCountDto {
+    private Long userId;
+    private String date;
+    private int waterCount;
+}
@@ -0,0 +1,76 @@
+package com.ssafy.bapai.diet.service;
+
+import com.ssafy.bapai.diet.dao.DailyNutritionDao;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * daily_nutrition (사용자 x 날짜 영양 집계) 관리
+ * - refresh: 식단 저장/수정/삭제 트랜잭션 안에서 그 날짜 1행만 diet + diet_detail 로 다시 계산
+ *   (증감 대신 재계산 -> 중복 호출/순서와 무관하게 항상 원본과 일치)
+ * - rebuild: 기존 데이터 백필. app.diet.rollup.rebuild-on-startup=true 로 기동하면 사용자 청크 단위로 실행
+ *   (청크마다 별도 트랜잭션, 실행 중 들어온 변경은 refresh 가 같은 값으로 덮으므로 안전)
+ */
+@Slf4j
+@Component
+public class DailyNutritionRollup implements ApplicationRunner {
+
+    private final DailyNutritionDao dailyNutritionDao;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean rebuildOnStartup;
+    private final int rebuildChunkSize;
+
+    public DailyNutritionRollup(DailyNutritionDao dailyNutritionDao,
+                                TransactionTemplate transactionTemplate,
+                                @Value("${app.diet.rollup.rebuild-on-startup:false}")
+                                boolean rebuildOnStartup,
+                                @Value("${app.diet.rollup.rebuild-chunk-size:200}")
+                                int rebuildChunkSize) {
+        this.dailyNutritionDao = dailyNutritionDao;
+        this.transactionTemplate = transactionTemplate;
+        this.rebuildOnStartup = rebuildOnStartup;
+        this.rebuildChunkSize = rebuildChunkSize;
+    }
+
+    // 호출하는 쪽 트랜잭션에 참여 (식단 변경과 함께 커밋/롤백)
+    public void refresh(Long userId, String date) {
+        if (userId == null || date == null) {
+            return;
+        }
+        dailyNutritionDao.refreshDay(userId, date);
+        dailyNutritionDao.deleteDayIfEmpty(userId, date);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (rebuildOnStartup) {
+            rebuildAll();
+        }
+    }
+
+    public int rebuildAll() {
+        long started = System.currentTimeMillis();
+        long afterUserId = 0;
+        int users = 0;
+        while (true) {
+            List<Long> userIds = dailyNutritionDao.selectDietUserIdsAfter(afterUserId, rebuildChunkSize);
+            if (userIds.isEmpty()) {
+                break;
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                dailyNutritionDao.deleteByUserIds(userIds);
+                dailyNutritionDao.rebuildByUserIds(userIds);
+            });
+            users += userIds.size();
+            afterUserId = userIds.get(userIds.size() - 1);
+        }
+        log.info("daily_nutrition rebuilt. users={}, elapsedMs={}", users,
+                System.currentTimeMillis() - started);
+        return users;
+    }
+}
@@ -0,0 +1,194 @@
+package com.ssafy.bapai.diet.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ssafy.bapai.diet.dao.DietDao;
+import com.ssafy.bapai.diet.dto.DietExportRowDto;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPOutputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cursor.Cursor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 식단 전체 이력 내보내기 (NDJSON / CSV, 선택적 gzip)
+ * - MyBatis Cursor 로 한 행씩 읽어 바로 씀 -> 이력 크기와 무관하게 메모리 일정
+ * - Cursor 는 세션이 열려 있어야 하므로 스트리밍 전체를 읽기 전용 트랜잭션 안에서 실행
+ * - 내보내기 1건이 DB 커넥션 1개를 끝까지 점유 -> 노드당 동시 실행 수 제한 (초과 시 거절)
+ * - NDJSON: 식단 1건당 1줄 (foods 배열 포함), CSV: 음식 1개당 1행 (엑셀 한글용 BOM)
+ */
+@Slf4j
+@Service
+public class DietExportService {
+
+    public enum Format { NDJSON, CSV }
+
+    private static final String CSV_HEADER =
+            "date,time,meal_type,diet_id,memo,score,food_name,amount,kcal,carbs,protein,fat";
+
+    private final DietDao dietDao;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTx;
+    private final Semaphore permits;
+
+    public DietExportService(DietDao dietDao,
+                             ObjectMapper objectMapper,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${app.diet.export.max-concurrent:2}") int maxConcurrent) {
+        this.dietDao = dietDao;
+        this.objectMapper = objectMapper;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.permits = new Semaphore(maxConcurrent);
+    }
+
+    /**
+     * 실행 자리 확보. 성공하면 여러 번 호출해도 한 번만 반납하는 핸들, 자리가 없으면 null
+     * - 스트리밍 본문이 실행되지 않는 경우(비동기 거절/타임아웃 등)도 있으므로 반납은 호출 측이
+     *   본문 종료와 비동기 요청 종료 양쪽에 걸어 둠
+     */
+    public Runnable tryAcquire() {
+        if (!permits.tryAcquire()) {
+            return null;
+        }
+        AtomicBoolean released = new AtomicBoolean(false);
+        return () -> {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        };
+    }
+
+    public void export(Long userId, String startDate, String endDate, Format format, boolean gzip,
+                       OutputStream out) throws IOException {
+        long started = System.currentTimeMillis();
+        try {
+            OutputStream target = gzip ? new GZIPOutputStream(out, 8192) : out;
+            long rows = readOnlyTx.execute(status -> {
+                try (Cursor<DietExportRowDto> cursor =
+                             dietDao.selectDietExportRows(userId, startDate, endDate)) {
+                    return (format == Format.CSV) ? writeCsv(cursor, target) : writeNdjson(cursor, target);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            if (target instanceof GZIPOutputStream gz) {
+                gz.finish();
+            }
+            out.flush();
+            log.info("Diet export done. userId={}, format={}, gzip={}, rows={}, elapsedMs={}",
+                    userId, format, gzip, rows, System.currentTimeMillis() - started);
+        } catch (UncheckedIOException e) {
+            // 대부분 다운로드 중 연결 끊김
+            log.info("Diet export aborted. userId={}, err={}", userId, e.getCause().getMessage());
+            throw e.getCause();
+        }
+    }
+
+    // 정렬이 diet_id 단위로 묶여 있으므로 id 가 바뀔 때마다 한 줄 마감
+    private long writeNdjson(Cursor<DietExportRowDto> cursor, OutputStream out) throws IOException {
+        JsonGenerator gen = objectMapper.getFactory().createGenerator(out);
+        gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        gen.setRootValueSeparator(null);
+
+        long rows = 0;
+        Long currentId = null;
+        for (DietExportRowDto row : cursor) {
+            if (!row.getDietId().equals(currentId)) {
+                if (currentId != null) {
+                    endDiet(gen);
+                }
+                startDiet(gen, row);
+                currentId = row.getDietId();
+            }
+            if (row.getFoodName() != null) {
+                gen.writeStartObject();
+                gen.writeObjectField("foodName", row.getFoodName());
+                gen.writeObjectField("amount", row.getFoodAmount());
+                gen.writeObjectField("kcal", row.getFoodKcal());
+                gen.writeObjectField("carbs", row.getFoodCarbs());
+                gen.writeObjectField("protein", row.getFoodProtein());
+                gen.writeObjectField("fat", row.getFoodFat());
+                gen.writeEndObject();
+            }
+            rows++;
+        }
+        if (currentId != null) {
+            endDiet(gen);
+        }
+        gen.flush();
+        return rows;
+    }
+
+    private void startDiet(JsonGenerator gen, DietExportRowDto row) throws IOException {
+        gen.writeStartObject();
+        gen.writeObjectField("dietId", row.getDietId());
+        gen.writeObjectField("date", row.getEatDate());
+        gen.writeObjectField("time", row.getTime());
+        gen.writeObjectField("mealType", row.getMealType());
+        gen.writeObjectField("memo", row.getMemo());
+        gen.writeObjectField("dietImg", row.getDietImg());
+        gen.writeObjectField("totalKcal", row.getTotalKcal());
+        gen.writeObjectField("totalCarbs", row.getTotalCarbs());
+        gen.writeObjectField("totalProtein", row.getTotalProtein());
+        gen.writeObjectField("totalFat", row.getTotalFat());
+        gen.writeObjectField("score", row.getScore());
+        gen.writeObjectField("aiAnalysis", row.getAiAnalysis());
+        gen.writeArrayFieldStart("foods");
+    }
+
+    private void endDiet(JsonGenerator gen) throws IOException {
+        gen.writeEndArray();
+        gen.writeEndObject();
+        gen.writeRaw('\n');
+    }
+
+    private long writeCsv(Cursor<DietExportRowDto> cursor, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write('\uFEFF'); // BOM (엑셀에서 한글 깨짐 방지)
+        writer.write(CSV_HEADER);
+        writer.write("\r\n");
+
+        long rows = 0;
+        for (DietExportRowDto row : cursor) {
+            writer.write(String.join(",",
+                    csv(row.getEatDate()), csv(row.getTime()), csv(row.getMealType()),
+                    csv(row.getDietId()), csv(row.getMemo()), csv(row.getScore()),
+                    csv(row.getFoodName()), csv(row.getFoodAmount()), csv(row.getFoodKcal()),
+                    csv(row.getFoodCarbs()), csv(row.getFoodProtein()), csv(row.getFoodFat())));
+            writer.write("\r\n");
+            rows++;
+        }
+        writer.flush();
+        return rows;
+    }
+
+    // RFC 4180 따옴표 처리 + 수식으로 해석될 수 있는 셀(=,+,-,@ 시작)은 앞에 ' 추가
+    static String csv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        if (value instanceof Number) {
+            return value.toString();
+        }
+        String s = value.toString();
+        if (!s.isEmpty() && "=+-@".indexOf(s.charAt(0)) >= 0) {
+            s = "'" + s;
+        }
+        if (s.indexOf(',') >= 0 || s.indexOf('"') >= 0 || s.indexOf('\n') >= 0 || s.indexOf('\r') >= 0) {
+            s = "\"" + s.replace("\"", "\"\"") + "\"";
+        }
+        return s;
+    }
+}
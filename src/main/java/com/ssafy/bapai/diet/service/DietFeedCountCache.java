@@ -0,0 +1,34 @@
+package com.ssafy.bapai.diet.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.ssafy.bapai.diet.dao.DietDao;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 피드 전체 개수 (SELECT COUNT(*) FROM diet) 캐시
+ * - 페이지마다 전체 스캔하던 것을 노드당 주기적 1회로 (표시용 근사값이라 몇 초~분 지연 허용)
+ * - refreshAfterWrite: 만료 후 첫 요청도 기존 값을 바로 받고 갱신은 백그라운드에서
+ */
+@Component
+public class DietFeedCountCache {
+
+    private static final String KEY = "diet";
+
+    private final LoadingCache<String, Integer> cache;
+
+    public DietFeedCountCache(DietDao dietDao,
+                              @Value("${app.diet.feed.count-refresh-seconds:60}") long refreshSeconds) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(1)
+                .refreshAfterWrite(Duration.ofSeconds(refreshSeconds))
+                .build(key -> dietDao.selectDietCount());
+    }
+
+    public int get() {
+        Integer count = cache.get(KEY);
+        return (count != null) ? count : 0;
+    }
+}
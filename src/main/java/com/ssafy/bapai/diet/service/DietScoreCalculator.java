@@ -0,0 +1,85 @@
+package com.ssafy.bapai.diet.service;
+
+import com.ssafy.bapai.diet.dto.DietDto;
+import com.ssafy.bapai.member.dto.MemberGoalDto;
+import org.springframework.stereotype.Component;
+
+/**
+ * 규칙 기반 식단 점수 (0~100)
+ * - 기준: HealthService.calculateHealthMetrics 의 일일 권장량 x 한 끼 비중(1/3)
+ * - 영양소별 점수: 목표 대비 부족/초과 편차를 목표(LOSS/GAIN/MAINTAIN)별 허용폭으로 나눠 감점
+ * - 최종 점수: 목표별 가중 평균 -> 같은 입력이면 항상 같은 점수 (랭킹 재현성)
+ */
+@Component
+public class DietScoreCalculator {
+
+    static final double MEAL_SHARE = 1.0 / 3.0;
+
+    /**
+     * 목표별 가중치와 허용폭.
+     * 허용폭(under/over)은 한 끼 목표 대비 편차가 그만큼 벌어지면 해당 영양소 점수가 0이 되는 비율
+     * (예: over 0.5 -> 목표의 150% 섭취 시 0점)
+     */
+    private enum Goal {
+        //            kcal(w, under, over)  carbs            protein          fat
+        LOSS(new Rule(0.40, 0.7, 0.5), new Rule(0.15, 0.9, 0.6),
+                new Rule(0.30, 0.5, 1.0), new Rule(0.15, 0.9, 0.5)),
+        GAIN(new Rule(0.35, 0.5, 0.8), new Rule(0.25, 0.6, 0.8),
+                new Rule(0.30, 0.5, 1.0), new Rule(0.10, 0.9, 0.7)),
+        MAINTAIN(new Rule(0.30, 0.6, 0.6), new Rule(0.25, 0.7, 0.7),
+                new Rule(0.20, 0.6, 0.8), new Rule(0.25, 0.8, 0.6));
+
+        private final Rule kcal;
+        private final Rule carbs;
+        private final Rule protein;
+        private final Rule fat;
+
+        Goal(Rule kcal, Rule carbs, Rule protein, Rule fat) {
+            this.kcal = kcal;
+            this.carbs = carbs;
+            this.protein = protein;
+            this.fat = fat;
+        }
+
+        static Goal of(String dietGoal) {
+            if ("LOSS".equals(dietGoal)) {
+                return LOSS;
+            }
+            if ("GAIN".equals(dietGoal)) {
+                return GAIN;
+            }
+            return MAINTAIN;
+        }
+    }
+
+    private record Rule(double weight, double underTolerance, double overTolerance) {
+
+        // 0~100. intake/target == 1 이면 100점
+        double score(Double intake, double dailyTarget) {
+            double target = dailyTarget * MEAL_SHARE;
+            if (target <= 0) {
+                return 100;
+            }
+            double ratio = ((intake != null) ? intake : 0.0) / target;
+            double deviation = ratio - 1.0;
+            double tolerance = (deviation < 0) ? underTolerance : overTolerance;
+            return 100 * Math.max(0.0, 1.0 - Math.abs(deviation) / tolerance);
+        }
+    }
+
+    public int score(MemberGoalDto goal, DietDto diet) {
+        Goal g = Goal.of(goal.getDietGoal());
+
+        double weighted = g.kcal.weight() * g.kcal.score(diet.getTotalKcal(), goal.getRecCalories())
+                + g.carbs.weight() * g.carbs.score(diet.getTotalCarbs(), goal.getRecCarbs())
+                + g.protein.weight() * g.protein.score(diet.getTotalProtein(), goal.getRecProtein())
+                + g.fat.weight() * g.fat.score(diet.getTotalFat(), goal.getRecFat());
+        double totalWeight = g.kcal.weight() + g.carbs.weight() + g.protein.weight() + g.fat.weight();
+
+        return clamp((int) Math.round(weighted / totalWeight));
+    }
+
+    public static int clamp(int score) {
+        return Math.max(0, Math.min(100, score));
+    }
+}
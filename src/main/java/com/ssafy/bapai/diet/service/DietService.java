@@ -1,5 +1,6 @@
 package com.ssafy.bapai.diet.service;
 
+import com.ssafy.bapai.common.dto.CursorResponse;
 import com.ssafy.bapai.common.dto.PageResponse;
 import com.ssafy.bapai.diet.dto.DailyDietLogDto;
 import com.ssafy.bapai.diet.dto.DietDto;
@@ -13,16 +14,18 @@ public interface DietService {
     // 1. 저장 및 분석
     void saveDiet(DietDto dietDto);
 
-    DietDto analyzeDiet(MultipartFile file, String hint);
+    DietDto analyzeDiet(Long userId, MultipartFile file, String hint);
 
     // 2. 조회 (리턴 타입 변경됨)
     // 일간 조회 (통계 + 리스트)
     DailyDietLogDto getDailyDietLog(Long userId, String date);
 
     // 기간(주간/월간) 조회 (Map 반환)
-    PeriodDietLogDto getPeriodDietLogs(Long userId, String startDate, String endDate);
+    // summaryOnly = true 면 일별 집계(daily_nutrition)만 읽고 음식 목록은 비움
+    PeriodDietLogDto getPeriodDietLogs(Long userId, String startDate, String endDate,
+                                       boolean summaryOnly);
 
-    // 전체 리스트 조회 (기존 유지)
+    // 전체 리스트 조회 (최근 식단 최대 500건, 전체 이력은 내보내기 사용)
     List<DietDto> getAllDiets(Long userId);
 
     // 상세 조회
@@ -36,6 +39,9 @@ public interface DietService {
     // 4. 커뮤니티 피드
     PageResponse<DietDto> getDietFeed(String sort, int size, int page);
 
+    // 커서 기반 (cursor 가 null 이면 첫 페이지)
+    CursorResponse<DietDto> getDietFeedScroll(String sort, int size, String cursor);
+
     int getDietCount();
 
     // 5. 스트릭 및 물 관리 (추가/변경됨)
@@ -1,22 +1,28 @@
 package com.ssafy.bapai.diet.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ssafy.bapai.ai.dto.FoodAnalysisResult;
 import com.ssafy.bapai.ai.service.AiService;
+import com.ssafy.bapai.common.dto.CursorResponse;
 import com.ssafy.bapai.common.dto.PageResponse;
 import com.ssafy.bapai.common.s3.S3Service;
+import com.ssafy.bapai.diet.dao.DailyNutritionDao;
 import com.ssafy.bapai.diet.dao.DietDao;
 import com.ssafy.bapai.diet.dto.DailyDietLogDto;
+import com.ssafy.bapai.diet.dto.DailyNutritionDto;
 import com.ssafy.bapai.diet.dto.DietDetailDto;
 import com.ssafy.bapai.diet.dto.DietDto;
 import com.ssafy.bapai.diet.dto.DietLogItemDto;
 import com.ssafy.bapai.diet.dto.PeriodDietLogDto;
 import com.ssafy.bapai.diet.dto.StreakDto;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -32,32 +38,64 @@ public class DietServiceImpl implements DietService {
     private final DietDao dietDao;
     private final S3Service s3Service;
     private final AiService aiService;
-    private final ObjectMapper objectMapper;
+    private final DailyNutritionDao dailyNutritionDao;
+    private final DailyNutritionRollup dailyNutritionRollup;
+    private final DietStreakTracker dietStreakTracker;
+    private final DietFeedCountCache dietFeedCountCache;
+    private final WaterCountBuffer waterCountBuffer;
+
+    private static final int MAX_FEED_SIZE = 50;
+    private static final int MAX_HISTORY_ITEMS = 500; // 그 이상은 /me/export
 
     // =================================================================================
     // 1. 저장 및 분석
     // =================================================================================
 
     @Override
-    public DietDto analyzeDiet(MultipartFile file, String hint) {
+    public DietDto analyzeDiet(Long userId, MultipartFile file, String hint) {
         DietDto dietDto = new DietDto();
-        // 1. 이미지 업로드
+
+        // 0. multipart 스트림은 한 번만 읽어 업로드/분석이 같은 버퍼를 공유
+        byte[] imageBytes = null;
+        String contentType = null;
+        String fileName = null;
         if (file != null && !file.isEmpty()) {
             try {
-                String imgUrl = s3Service.uploadFile(file, "diet");
-                dietDto.setDietImg(imgUrl);
-            } catch (Exception e) {
-                log.error("이미지 업로드 실패", e);
+                imageBytes = file.getBytes();
+                contentType = file.getContentType();
+                fileName = file.getOriginalFilename();
+            } catch (IOException e) {
+                log.error("이미지 읽기 실패", e);
                 throw new RuntimeException("이미지 업로드 중 오류 발생");
             }
         }
+
+        // 1. 이미지 업로드 (AI 분석과 병렬)
+        CompletableFuture<String> upload = (imageBytes != null)
+                ? s3Service.uploadAsync(imageBytes, fileName, contentType, "diet")
+                : null;
+
         // 2. AI 분석
-        String aiResponse = aiService.analyzeFood(file, hint);
+        FoodAnalysisResult aiResult = aiService.analyzeFood(imageBytes, contentType, hint);
+
+        if (upload != null) {
+            try {
+                dietDto.setDietImg(upload.join());
+            } catch (CompletionException e) {
+                log.error("이미지 업로드 실패", e.getCause());
+                throw new RuntimeException("이미지 업로드 중 오류 발생");
+            }
+        }
 
         // 3. 결과 적용
-        applyAiResult(dietDto, aiResponse);
+        applyAiResult(dietDto, aiResult);
         calculateTotalNutrition(dietDto);
 
+        // 4. 미리보기 점수: LLM/음식 DB 어느 경로든 저장 시와 같은 규칙 점수 (모델 점수는 사용 안 함)
+        if (!aiResult.failed()) {
+            dietDto.setScore(aiService.calculateBaseDietScore(userId, dietDto));
+        }
+
         return dietDto;
     }
 
@@ -65,6 +103,7 @@ public class DietServiceImpl implements DietService {
     @Transactional
     public void saveDiet(DietDto dietDto) {
         calculateTotalNutrition(dietDto);
+        applyScore(dietDto);
         dietDao.insertDiet(dietDto);
 
         if (dietDto.getFoodList() != null && !dietDto.getFoodList().isEmpty()) {
@@ -73,12 +112,15 @@ public class DietServiceImpl implements DietService {
             }
             dietDao.insertDietDetails(dietDto.getFoodList());
         }
+        dailyNutritionRollup.refresh(dietDto.getUserId(), dietDto.getEatDate());
+        dietStreakTracker.onDietAdded(dietDto.getUserId(), dietDto.getEatDate());
     }
 
     @Override
     @Transactional
     public void updateDiet(DietDto dietDto) {
         calculateTotalNutrition(dietDto);
+        applyScore(dietDto);
         dietDao.updateDiet(dietDto);
         dietDao.deleteDietDetailsByDietId(dietDto.getDietId()); // 기존 상세 삭제
 
@@ -88,12 +130,22 @@ public class DietServiceImpl implements DietService {
             }
             dietDao.insertDietDetails(dietDto.getFoodList()); // 새 상세 저장
         }
+        // 수정 요청에는 날짜가 없으므로 저장된 식단 기준으로 집계 갱신
+        DietDto saved = dietDao.selectDietOwnerDate(dietDto.getDietId());
+        if (saved != null) {
+            dailyNutritionRollup.refresh(saved.getUserId(), saved.getEatDate());
+        }
     }
 
     @Override
     @Transactional
     public void deleteDiet(Long dietId) {
+        DietDto target = dietDao.selectDietOwnerDate(dietId);
         dietDao.deleteDiet(dietId);
+        if (target != null) {
+            dailyNutritionRollup.refresh(target.getUserId(), target.getEatDate());
+            dietStreakTracker.onDietRemoved(target.getUserId(), target.getEatDate());
+        }
     }
 
 
@@ -110,7 +162,9 @@ public class DietServiceImpl implements DietService {
         List<DietDto> originalList = dietDao.selectDailyDiets(userId, date);
         Map<String, Object> waterInfo = dietDao.selectWaterInfo(userId, date);
 
-        int waterCount = (waterInfo != null) ?
+        // 아직 DB 에 반영 안 된 탭이 있으면 Redis 값 우선
+        Integer buffered = waterCountBuffer.current(userId, date);
+        int waterCount = (buffered != null) ? buffered : (waterInfo != null) ?
                 Integer.parseInt(String.valueOf(waterInfo.get("water_count"))) : 0;
         int waterGoal = (waterInfo != null) ?
                 Integer.parseInt(String.valueOf(waterInfo.get("water_goal"))) : 8;
@@ -123,7 +177,11 @@ public class DietServiceImpl implements DietService {
      * 기간(주간/월간) 조회: Loop 없이 한 번에 조회 + 이미지 제외 (selectWeeklyDiets 사용)
      */
     @Override
-    public PeriodDietLogDto getPeriodDietLogs(Long userId, String startDate, String endDate) {
+    public PeriodDietLogDto getPeriodDietLogs(Long userId, String startDate, String endDate,
+                                              boolean summaryOnly) {
+        if (summaryOnly) {
+            return getPeriodSummary(userId, startDate, endDate);
+        }
         // 1. DB 조회 (한 번에 다 가져옴, 이미지는 XML에서 제외됨)
         List<DietDto> fullList = dietDao.selectWeeklyDiets(userId, startDate, endDate);
 
@@ -162,6 +220,14 @@ public class DietServiceImpl implements DietService {
             start = start.plusDays(1);
         }
 
+        int scoreSum = 0, scoreCount = 0;
+        for (DietDto diet : fullList) {
+            if (diet.getScore() != null && diet.getScore() > 0) {
+                scoreSum += diet.getScore();
+                scoreCount++;
+            }
+        }
+
         return PeriodDietLogDto.builder()
                 .startDate(startDate)
                 .endDate(endDate)
@@ -171,6 +237,67 @@ public class DietServiceImpl implements DietService {
                 .totalCarbs(round(totalCarbs))
                 .totalProtein(round(totalProtein))
                 .totalFat(round(totalFat))
+                .averageScore(average(scoreSum, scoreCount))
+                .dailyLogs(resultMap)
+                .build();
+    }
+
+    /**
+     * 기간 요약 조회: daily_nutrition 에서 기록 있는 날짜만 읽음 (최대 기간 일수 행, 음식 목록 없음)
+     */
+    private PeriodDietLogDto getPeriodSummary(Long userId, String startDate, String endDate) {
+        Map<String, DailyNutritionDto> byDate = dailyNutritionDao
+                .selectRange(userId, startDate, endDate).stream()
+                .collect(Collectors.toMap(DailyNutritionDto::getEatDate, Function.identity()));
+
+        Map<String, DailyDietLogDto> resultMap = new LinkedHashMap<>();
+        java.time.LocalDate start = java.time.LocalDate.parse(startDate);
+        java.time.LocalDate end = java.time.LocalDate.parse(endDate);
+
+        double totalKcal = 0, totalCarbs = 0, totalProtein = 0, totalFat = 0;
+        int totalMeal = 0, totalSnack = 0, scoreSum = 0, scoreCount = 0;
+        int index = 1;
+
+        while (!start.isAfter(end)) {
+            String currDate = start.toString();
+            DailyNutritionDto day = byDate.get(currDate);
+            if (day == null) {
+                day = new DailyNutritionDto();
+            }
+            totalKcal += day.getTotalKcal();
+            totalCarbs += day.getTotalCarbs();
+            totalProtein += day.getTotalProtein();
+            totalFat += day.getTotalFat();
+            totalMeal += day.getMealCount();
+            totalSnack += day.getSnackCount();
+            scoreSum += day.getScoreSum();
+            scoreCount += day.getScoreCount();
+
+            resultMap.put(String.valueOf(index++), DailyDietLogDto.builder()
+                    .date(currDate)
+                    .totalMealCount(day.getMealCount())
+                    .totalSnackCount(day.getSnackCount())
+                    .totalCalories(round(day.getTotalKcal()))
+                    .totalCarbs(round(day.getTotalCarbs()))
+                    .totalProtein(round(day.getTotalProtein()))
+                    .totalFat(round(day.getTotalFat()))
+                    .averageScore(average(day.getScoreSum(), day.getScoreCount()))
+                    .dietList(Collections.emptyList())
+                    .build());
+
+            start = start.plusDays(1);
+        }
+
+        return PeriodDietLogDto.builder()
+                .startDate(startDate)
+                .endDate(endDate)
+                .totalMealCount(totalMeal)
+                .totalSnackCount(totalSnack)
+                .totalCalories(round(totalKcal))
+                .totalCarbs(round(totalCarbs))
+                .totalProtein(round(totalProtein))
+                .totalFat(round(totalFat))
+                .averageScore(average(scoreSum, scoreCount))
                 .dailyLogs(resultMap)
                 .build();
     }
@@ -179,7 +306,7 @@ public class DietServiceImpl implements DietService {
     private DailyDietLogDto calculateDailyStats(List<DietDto> dietList, String date, int waterCount,
                                                 int waterGoal) {
         double sumKcal = 0, sumCarbs = 0, sumProtein = 0, sumFat = 0;
-        int mealCount = 0, snackCount = 0;
+        int mealCount = 0, snackCount = 0, scoreSum = 0, scoreCount = 0;
         List<DietLogItemDto> flatList = new ArrayList<>();
 
         for (DietDto diet : dietList) {
@@ -188,6 +315,10 @@ public class DietServiceImpl implements DietService {
             } else {
                 mealCount++;
             }
+            if (diet.getScore() != null && diet.getScore() > 0) {
+                scoreSum += diet.getScore();
+                scoreCount++;
+            }
 
             if (diet.getFoodList() != null) {
                 for (DietDetailDto food : diet.getFoodList()) {
@@ -223,6 +354,7 @@ public class DietServiceImpl implements DietService {
                 .totalCarbs(round(sumCarbs))
                 .totalProtein(round(sumProtein))
                 .totalFat(round(sumFat))
+                .averageScore(average(scoreSum, scoreCount))
                 .dietList(flatList)
                 .build();
     }
@@ -232,61 +364,16 @@ public class DietServiceImpl implements DietService {
     // 3. 스트릭 및 물 관리
     // =================================================================================
 
+    // diet_streak 행 1개 조회 (저장/삭제 시 DietStreakTracker 가 갱신)
     @Override
     public StreakDto getDietStreak(Long userId) {
-        List<String> dates = dietDao.selectDietDates(userId);
-
-        if (dates.isEmpty()) {
-            return StreakDto.builder().currentStreak(0).longestStreak(0).build();
-        }
-
-        // 1. 현재 스트릭
-        int currentStreak = 0;
-        java.time.LocalDate today = java.time.LocalDate.now();
-        java.time.LocalDate checkDate = today;
-        java.util.Set<String> dateSet = new java.util.HashSet<>(dates);
-
-        if (!dateSet.contains(today.toString())) {
-            checkDate = today.minusDays(1);
-        }
-
-        while (dateSet.contains(checkDate.toString())) {
-            currentStreak++;
-            checkDate = checkDate.minusDays(1);
-        }
-
-        // 2. 최장 스트릭
-        int longestStreak = 0;
-        int tempStreak = 1;
-        List<java.time.LocalDate> sortedDates = dates.stream()
-                .map(java.time.LocalDate::parse)
-                .sorted()
-                .collect(Collectors.toList());
-
-        if (!sortedDates.isEmpty()) {
-            longestStreak = 1;
-        }
-
-        for (int i = 0; i < sortedDates.size() - 1; i++) {
-            if (sortedDates.get(i).plusDays(1).equals(sortedDates.get(i + 1))) {
-                tempStreak++;
-            } else {
-                longestStreak = Math.max(longestStreak, tempStreak);
-                tempStreak = 1;
-            }
-        }
-        longestStreak = Math.max(longestStreak, tempStreak);
-
-        return StreakDto.builder()
-                .currentStreak(currentStreak)
-                .longestStreak(longestStreak)
-                .build();
+        return dietStreakTracker.getStreak(userId);
     }
 
+    // 탭은 Redis 에 모았다가 주기적으로 daily_log 에 일괄 반영 (WaterCountBuffer)
     @Override
-    @Transactional
     public void changeWaterCount(Long userId, String date, int delta) {
-        dietDao.updateWaterCountDelta(userId, date, delta);
+        waterCountBuffer.add(userId, date, delta);
     }
 
     @Override
@@ -302,7 +389,7 @@ public class DietServiceImpl implements DietService {
 
     @Override
     public List<DietDto> getAllDiets(Long userId) {
-        return dietDao.selectAllDiets(userId);
+        return dietDao.selectAllDiets(userId, MAX_HISTORY_ITEMS);
     }
 
     @Override
@@ -314,13 +401,38 @@ public class DietServiceImpl implements DietService {
     public PageResponse<DietDto> getDietFeed(String sort, int size, int page) {
         int offset = (page - 1) * size;
         List<DietDto> content = dietDao.selectDietList(sort, size, offset);
-        int totalElements = dietDao.selectDietCount();
+        int totalElements = dietFeedCountCache.get();
         return new PageResponse<>(content, page, size, totalElements);
     }
 
+    /**
+     * 무한 스크롤 피드: 커서(이전 페이지 마지막 행) 다음부터 size 개 (OFFSET 없음 -> 깊은 페이지도 비용 일정)
+     */
+    @Override
+    public CursorResponse<DietDto> getDietFeedScroll(String sort, int size, String cursor) {
+        String sortKey = switch (sort == null ? "" : sort) {
+            case "likes", "comments", "oldest" -> sort;
+            default -> "latest";
+        };
+        int limit = Math.max(1, Math.min(size, MAX_FEED_SIZE));
+        FeedCursor after = FeedCursor.decode(cursor, sortKey);
+
+        // 1개 더 읽어서 다음 페이지 여부 판단
+        List<DietDto> rows = dietDao.selectDietFeedAfter(sortKey,
+                (after != null) ? after.count() : null,
+                (after != null) ? after.dietId() : null,
+                limit + 1);
+        boolean hasNext = rows.size() > limit;
+        List<DietDto> content = hasNext ? rows.subList(0, limit) : rows;
+        String nextCursor = hasNext
+                ? FeedCursor.of(sortKey, content.get(content.size() - 1)).encode() : null;
+
+        return new CursorResponse<>(content, nextCursor, hasNext, dietFeedCountCache.get());
+    }
+
     @Override
     public int getDietCount() {
-        return dietDao.selectDietCount();
+        return dietFeedCountCache.get();
     }
 
     // 영양소 합계 계산
@@ -342,51 +454,52 @@ public class DietServiceImpl implements DietService {
         dto.setTotalFat(round(sumFat));
     }
 
-    private void applyAiResult(DietDto dietDto, String jsonResult) {
-        try {
-            JsonNode root = objectMapper.readTree(jsonResult);
-            List<DietDetailDto> foodList = new ArrayList<>();
-
-            if (root.has("foodList") && root.get("foodList").isArray()) {
-                for (JsonNode node : root.get("foodList")) {
-                    DietDetailDto detail = new DietDetailDto();
-                    detail.setFoodName(node.path("foodName").asText("알 수 없음"));
-                    detail.setKcal(node.path("kcal").asDouble(0));
-                    detail.setCarbs(node.path("carbs").asDouble(0));
-                    detail.setProtein(node.path("protein").asDouble(0));
-                    detail.setFat(node.path("fat").asDouble(0));
-                    detail.setAmount(node.path("amount").asInt(1));
-                    foodList.add(detail);
-                }
-                dietDto.setFoodList(foodList);
-            }
-            if (root.has("aiAnalysis")) {
-                dietDto.setAiAnalysis(root.get("aiAnalysis").asText());
-            }
-            if (root.has("score")) {
-                dietDto.setScore(root.get("score").asInt());
-            }
+    // 단일 음식/foodList 두 모양 모두 items() 로 처리 (JSON 재파싱 없음)
+    private void applyAiResult(DietDto dietDto, FoodAnalysisResult result) {
+        if (result.failed()) {
+            // 분석 실패 안내만 전달, 메뉴는 사용자가 직접 입력
+            dietDto.setAiAnalysis(result.aiAnalysis());
+            dietDto.setScore(result.score());
+            return;
+        }
+        List<DietDetailDto> foodList = new ArrayList<>();
+        for (FoodAnalysisResult.Item item : result.items()) {
+            DietDetailDto detail = new DietDetailDto();
+            detail.setFoodName(item.foodName() != null ? item.foodName() : "알 수 없음");
+            detail.setKcal(item.kcal() != null ? item.kcal() : 0.0);
+            detail.setCarbs(item.carbs() != null ? item.carbs() : 0.0);
+            detail.setProtein(item.protein() != null ? item.protein() : 0.0);
+            detail.setFat(item.fat() != null ? item.fat() : 0.0);
+            detail.setAmount(item.amount() != null ? item.amount() : 1);
+            foodList.add(detail);
+        }
+        if (!foodList.isEmpty()) {
+            dietDto.setFoodList(foodList);
+        }
+        if (result.aiAnalysis() != null) {
+            dietDto.setAiAnalysis(result.aiAnalysis());
+        }
+        if (result.score() != null) {
+            dietDto.setScore(result.score());
+        }
 
-            if ((dietDto.getMemo() == null || dietDto.getMemo().isBlank()) && !foodList.isEmpty()) {
-                dietDto.setMemo(foodList.get(0).getFoodName());
-            }
-        } catch (Exception e) {
-            log.error("AI 응답 파싱 실패", e);
+        if ((dietDto.getMemo() == null || dietDto.getMemo().isBlank()) && !foodList.isEmpty()) {
+            dietDto.setMemo(foodList.get(0).getFoodName());
         }
     }
 
-    @Transactional
-    public void insertDiet(DietDto dietDto, Long userId) {
-        // AI로부터 개인별 TDEE 기반 점수 획득
-        int aiScore = aiService.calculateDietScore(userId, dietDto);
-
-        dietDto.setUserId(userId);
-        dietDto.setScore(aiScore); // 산출된 점수 세팅
-
-        dietDao.insertDiet(dietDto); // DB 저장 (이 점수가 랭킹에 쓰임)
+    // ✅ 저장 점수는 서버에서 계산 (분석 응답의 모델 점수/클라이언트 값은 덮어씀 -> 랭킹 재현성)
+    // 개인별 TDEE 기반 규칙 점수, LLM 보정은 app.ai.diet-score.llm-refine 설정 시에만
+    private void applyScore(DietDto dietDto) {
+        dietDto.setScore(aiService.calculateDietScore(dietDto.getUserId(), dietDto));
     }
 
     private double round(double value) {
         return Math.round(value * 10) / 10.0;
     }
+
+    // 점수 기록이 없으면 null
+    private Double average(int sum, int count) {
+        return (count == 0) ? null : round((double) sum / count);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,120 @@
+package com.ssafy.bapai.diet.service;
+
+import com.ssafy.bapai.diet.dao.DietDao;
+import com.ssafy.bapai.diet.dao.DietStreakDao;
+import com.ssafy.bapai.diet.dto.DietStreakDto;
+import com.ssafy.bapai.diet.dto.StreakDto;
+import java.time.LocalDate;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * 스트릭 상태(diet_streak) 유지
+ * - 조회: 행 1개 읽기. last_date 가 오늘/어제면 current_streak, 아니면 0 (기존 getDietStreak 규칙과 동일)
+ * - 저장: 그 날짜의 첫 식단일 때만 반영. last_date 다음 날이면 +1, 더 뒤면 1 부터, 과거 날짜면 재계산 (두 구간이 이어질 수 있음)
+ * - 삭제: 그 날짜가 비워졌을 때만 재계산
+ * - 재계산은 diet 의 기록 날짜 전체를 한 번 훑음 (과거 날짜 변경/첫 조회에만 발생)
+ * - 식단 저장/삭제 트랜잭션 안에서 호출 -> 행 잠금(FOR UPDATE)으로 같은 사용자 동시 변경 직렬화
+ */
+@Component
+@RequiredArgsConstructor
+public class DietStreakTracker {
+
+    private final DietStreakDao dietStreakDao;
+    private final DietDao dietDao;
+
+    public StreakDto getStreak(Long userId) {
+        DietStreakDto streak = dietStreakDao.selectStreak(userId);
+        if (streak == null) {
+            // 도입 이전 사용자: 한 번 재계산해서 저장
+            streak = recompute(userId);
+        }
+        if (streak == null) {
+            return StreakDto.builder().currentStreak(0).longestStreak(0).build();
+        }
+
+        LocalDate today = LocalDate.now();
+        LocalDate last = LocalDate.parse(streak.getLastDate());
+        boolean alive = !last.isBefore(today.minusDays(1));
+        return StreakDto.builder()
+                .currentStreak(alive ? streak.getCurrentStreak() : 0)
+                .longestStreak(streak.getLongestStreak())
+                .build();
+    }
+
+    // 식단 저장 직후 (같은 트랜잭션)
+    public void onDietAdded(Long userId, String date) {
+        if (userId == null || date == null) {
+            return;
+        }
+        DietStreakDto streak = dietStreakDao.selectStreakForUpdate(userId);
+        if (streak == null) {
+            recompute(userId);
+            return;
+        }
+        if (dietStreakDao.countDietsOnDate(userId, date) != 1) {
+            return; // 이미 기록 있던 날
+        }
+
+        LocalDate day = LocalDate.parse(date);
+        LocalDate last = LocalDate.parse(streak.getLastDate());
+        if (day.isBefore(last)) {
+            recompute(userId);
+            return;
+        }
+        if (day.isEqual(last)) {
+            return;
+        }
+
+        int current = day.isEqual(last.plusDays(1)) ? streak.getCurrentStreak() + 1 : 1;
+        dietStreakDao.upsertStreak(new DietStreakDto(userId, current,
+                Math.max(streak.getLongestStreak(), current), date));
+    }
+
+    // 식단 삭제 직후 (같은 트랜잭션)
+    public void onDietRemoved(Long userId, String date) {
+        if (userId == null || date == null) {
+            return;
+        }
+        dietStreakDao.selectStreakForUpdate(userId);
+        if (dietStreakDao.countDietsOnDate(userId, date) == 0) {
+            recompute(userId);
+        }
+    }
+
+    /**
+     * diet 기록 날짜 전체로 다시 계산 후 저장, 기록이 없으면 행 삭제 후 null
+     */
+    public DietStreakDto recompute(Long userId) {
+        List<String> dates = dietDao.selectDietDates(userId); // DISTINCT, 최신순
+        if (dates.isEmpty()) {
+            dietStreakDao.deleteStreak(userId);
+            return null;
+        }
+
+        int current = 0;
+        int longest = 0;
+        int run = 0;
+        boolean latestRun = true; // 가장 최근 날짜부터 처음 끊기기 전까지가 current
+        LocalDate prev = null;
+        for (String date : dates) {
+            LocalDate day = LocalDate.parse(date);
+            if (prev != null && day.isEqual(prev.minusDays(1))) {
+                run++;
+            } else {
+                latestRun = (prev == null);
+                run = 1;
+            }
+            if (latestRun) {
+                current = run;
+            }
+            longest = Math.max(longest, run);
+            prev = day;
+        }
+
+        DietStreakDto streak = new DietStreakDto(userId, current, longest, dates.get(0));
+        dietStreakDao.upsertStreak(streak);
+        return streak;
+    }
+}
@@ -0,0 +1,51 @@
+package com.ssafy.bapai.diet.service;
+
+import com.ssafy.bapai.diet.dto.DietDto;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * 피드 커서: 이전 페이지 마지막 행의 (정렬 기준, 정렬값, diet_id) 를 base64url 로 감싼 불투명 문자열
+ * - 예: "likes:12:345" -> 좋아요 12개, diet_id 345 다음부터
+ * - 정렬 기준이 다른 커서는 거부 (정렬을 바꾸면 첫 페이지부터)
+ */
+public record FeedCursor(String sort, int count, long dietId) {
+
+    public static FeedCursor of(String sort, DietDto last) {
+        int count = switch (sort) {
+            case "likes" -> last.getLikeCount();
+            case "comments" -> last.getCommentCount();
+            default -> 0;
+        };
+        return new FeedCursor(sort, count, last.getDietId());
+    }
+
+    public String encode() {
+        String raw = sort + ":" + count + ":" + dietId;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return cursor 가 비어 있으면 null (첫 페이지)
+     * @throws IllegalArgumentException 형식이 틀리거나 정렬 기준이 다를 때
+     */
+    public static FeedCursor decode(String cursor, String sort) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        FeedCursor decoded;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":");
+            decoded = new FeedCursor(parts[0], Integer.parseInt(parts[1]), Long.parseLong(parts[2]));
+        } catch (RuntimeException e) {
+            // 잘못된 base64, 숫자 형식, 항목 수
+            throw new IllegalArgumentException("유효하지 않은 커서입니다.", e);
+        }
+        if (!decoded.sort().equals(sort)) {
+            throw new IllegalArgumentException("정렬 기준이 다른 커서입니다. 첫 페이지부터 다시 요청해주세요.");
+        }
+        return decoded;
+    }
+}
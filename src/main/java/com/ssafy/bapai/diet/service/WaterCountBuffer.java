@@ -0,0 +1,193 @@
+package com.ssafy.bapai.diet.service;
+
+import com.ssafy.bapai.diet.dao.DietDao;
+import com.ssafy.bapai.diet.dto.WaterCountDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 물 섭취 횟수 write-behind (탭마다 daily_log UPSERT 하던 것을 Redis 에 모았다가 일괄 반영)
+ * - Redis 해시 diet:water:{userId}:{date} 의 count = 현재값 (절대값). 첫 탭에 DB 값으로 초기화
+ * - 탭: Lua 1회로 HINCRBY + 0 미만 보정 + dirty 집합 등록 (원자적)
+ * - flush: dirty 집합에서 SPOP 으로 꺼낸 (user, date) 의 현재값을 foreach 다중 행 UPSERT 로 반영
+ *   -> 같은 날 여러 번 탭해도 1행, 절대값이라 중복 flush 되어도 결과 동일 (여러 노드가 동시에 flush 해도 안전)
+ * - 종료 시(@PreDestroy) 남은 것 모두 flush, Redis 장애 시에는 기존처럼 DB 직접 갱신
+ *   -> 직접 갱신한 (user, date) 의 해시는 DB 보다 오래된 값이므로 삭제 (실패하면 삭제 대기 목록에 두고 재시도)
+ *      다음 탭은 DB 값으로 다시 초기화되고, flush 가 옛 절대값으로 덮어쓰지 않음
+ */
+@Slf4j
+@Component
+public class WaterCountBuffer {
+
+    private static final String KEY_PREFIX = "diet:water:";
+    private static final String DIRTY_KEY = "diet:water:dirty";
+    private static final String FIELD = "count";
+
+    // KEYS[1]=해시, KEYS[2]=dirty, ARGV[1]=delta, ARGV[2]=DB 초기값(없으면 ""), ARGV[3]=TTL 초, ARGV[4]=dirty 멤버
+    // 해시가 없고 초기값도 없으면 -1 (호출 측이 DB 값을 읽어서 다시 호출)
+    private static final DefaultRedisScript<Long> TAP_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('HEXISTS', KEYS[1], 'count') == 0 then "
+                    + "if ARGV[2] == '' then return -1 end "
+                    + "redis.call('HSET', KEYS[1], 'count', ARGV[2]) end "
+                    + "local v = redis.call('HINCRBY', KEYS[1], 'count', ARGV[1]) "
+                    + "if v < 0 then redis.call('HSET', KEYS[1], 'count', 0) v = 0 end "
+                    + "redis.call('EXPIRE', KEYS[1], ARGV[3]) "
+                    + "redis.call('SADD', KEYS[2], ARGV[4]) "
+                    + "return v", Long.class);
+
+    private final DietDao dietDao;
+    private final StringRedisTemplate redisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Duration ttl;
+    private final int flushChunkSize;
+    // DB 직접 갱신 후 아직 지우지 못한 해시 키 (Redis 복구 후 탭/flush 전에 먼저 삭제)
+    private final Set<String> staleKeys = ConcurrentHashMap.newKeySet();
+
+    public WaterCountBuffer(DietDao dietDao,
+                            StringRedisTemplate redisTemplate,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.diet.water.ttl-hours:48}") long ttlHours,
+                            @Value("${app.diet.water.flush-chunk-size:500}") int flushChunkSize) {
+        this.dietDao = dietDao;
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.flushChunkSize = flushChunkSize;
+    }
+
+    /**
+     * @return 반영 후 물 섭취 횟수
+     */
+    public int add(Long userId, String date, int delta) {
+        String key = KEY_PREFIX + userId + ":" + date;
+        String member = userId + ":" + date;
+        try {
+            if (!evictStale(key)) {
+                throw new IllegalStateException("stale water buffer key not yet evicted");
+            }
+            Long value = tap(key, member, delta, "");
+            if (value != null && value < 0) {
+                value = tap(key, member, delta, String.valueOf(loadFromDb(userId, date)));
+            }
+            return (value != null) ? value.intValue() : 0;
+        } catch (Exception e) {
+            log.warn("Water buffer unavailable, writing through. userId={}, date={}, err={}",
+                    userId, date, e.getMessage());
+            meterRegistry.counter("diet.water.writes", "mode", "direct").increment();
+            // 아직 flush 안 된 탭이 읽히면 먼저 DB 에 반영한 뒤 증감 (읽기도 실패하면 DB 값 기준)
+            Integer buffered = current(userId, date);
+            if (buffered != null) {
+                dietDao.upsertWaterCounts(List.of(new WaterCountDto(userId, date, buffered)));
+            }
+            dietDao.updateWaterCountDelta(userId, date, delta);
+            staleKeys.add(key);
+            evictStale(key);
+            return loadFromDb(userId, date);
+        }
+    }
+
+    /**
+     * 아직 DB 에 반영 안 됐을 수 있는 현재값, Redis 에 없으면 null (-> DB 값 사용)
+     */
+    public Integer current(Long userId, String date) {
+        try {
+            Object value = redisTemplate.opsForHash().get(KEY_PREFIX + userId + ":" + date, FIELD);
+            return (value != null) ? Integer.valueOf(value.toString()) : null;
+        } catch (Exception e) {
+            log.debug("Water buffer read failed. userId={}, date={}, err={}", userId, date, e.getMessage());
+            return null;
+        }
+    }
+
+    @Scheduled(initialDelayString = "${app.diet.water.flush-interval-ms:5000}",
+            fixedDelayString = "${app.diet.water.flush-interval-ms:5000}")
+    public void flush() {
+        try {
+            for (String key : staleKeys) {
+                evictStale(key);
+            }
+            int flushed;
+            do {
+                flushed = flushChunk();
+            } while (flushed == flushChunkSize);
+        } catch (Exception e) {
+            log.warn("Water buffer flush failed. err={}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private int flushChunk() {
+        List<String> members = redisTemplate.opsForSet().pop(DIRTY_KEY, flushChunkSize);
+        if (members == null || members.isEmpty()) {
+            return 0;
+        }
+
+        List<WaterCountDto> counts = new ArrayList<>(members.size());
+        for (String member : members) {
+            int sep = member.indexOf(':');
+            Long userId = Long.valueOf(member.substring(0, sep));
+            String date = member.substring(sep + 1);
+            if (staleKeys.contains(KEY_PREFIX + member)) {
+                continue; // DB 직접 갱신된 뒤라 옛 값
+            }
+            Integer value = current(userId, date); // 만료된 키는 이미 반영된 것
+            if (value != null) {
+                counts.add(new WaterCountDto(userId, date, value));
+            }
+        }
+
+        try {
+            if (!counts.isEmpty()) {
+                dietDao.upsertWaterCounts(counts);
+            }
+        } catch (RuntimeException e) {
+            // 다음 주기에 다시 시도 (절대값이라 재반영해도 안전)
+            redisTemplate.opsForSet().add(DIRTY_KEY, members.toArray(String[]::new));
+            throw e;
+        }
+        meterRegistry.counter("diet.water.writes", "mode", "batched").increment(counts.size());
+        return members.size();
+    }
+
+    // @return 이 키를 버퍼로 써도 되면 true (삭제 대기 중이 아니거나 방금 삭제함)
+    private boolean evictStale(String key) {
+        if (!staleKeys.contains(key)) {
+            return true;
+        }
+        try {
+            redisTemplate.delete(key);
+            staleKeys.remove(key);
+            return true;
+        } catch (Exception e) {
+            log.debug("Water buffer stale key delete failed. key={}, err={}", key, e.getMessage());
+            return false;
+        }
+    }
+
+    private Long tap(String key, String member, int delta, String seed) {
+        return redisTemplate.execute(TAP_SCRIPT, List.of(key, DIRTY_KEY),
+                String.valueOf(delta), seed, String.valueOf(ttl.toSeconds()), member);
+    }
+
+    private int loadFromDb(Long userId, String date) {
+        Map<String, Object> waterInfo = dietDao.selectWaterInfo(userId, date);
+        return (waterInfo != null && waterInfo.get("water_count") != null)
+                ? Integer.parseInt(String.valueOf(waterInfo.get("water_count"))) : 0;
+    }
+}
@@ -3,6 +3,7 @@ package com.ssafy.bapai.food.dao;
 import com.ssafy.bapai.food.dto.FoodDto;
 import java.util.List;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
 
 @Mapper
 public interface FoodDao {
@@ -11,4 +12,10 @@ public interface FoodDao {
 
     // 상세 조회
     FoodDto selectFood(String foodCode);
+
+    // AI 분석 전 카탈로그 조회: 이름 정확 일치 (일반 음식 우선)
+    FoodDto selectByExactName(String name);
+
+    // AI 분석 전 카탈로그 조회: 이름 포함 후보 (일반 음식, 짧은 이름 우선)
+    List<FoodDto> selectNameCandidates(@Param("keyword") String keyword, @Param("limit") int limit);
 }
\ No newline at end of file
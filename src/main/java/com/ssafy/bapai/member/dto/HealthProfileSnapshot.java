@@ -0,0 +1,37 @@
+package com.ssafy.bapai.member.dto;
+
+/**
+ * AI 프롬프트/점수 계산용 사용자 건강 프로필 스냅샷 (불변)
+ * - MemberDto + HealthService 권장량 + 질환/알레르기 이름을 한 번에 묶어 캐시
+ */
+public record HealthProfileSnapshot(
+        Long userId,
+        int age,
+        String genderLabel,     // 남성 / 여성
+        int height,
+        int weight,
+        String activityLabel,   // 낮음 / 보통 / 높음 / 미상
+        String dietGoal,        // LOSS / MAINTAIN / GAIN
+        String goalLabel,       // 감량 / 유지 / 증량
+        String diseaseLabel,
+        String allergyLabel,
+        double tdee,
+        double recCalories,
+        double recCarbs,
+        double recProtein,
+        double recFat
+) {
+
+    // DietScoreCalculator 등 기존 MemberGoalDto 기반 로직용
+    public MemberGoalDto toGoal() {
+        MemberGoalDto goal = new MemberGoalDto();
+        goal.setUserId(userId);
+        goal.setDietGoal(dietGoal);
+        goal.setTdee(tdee);
+        goal.setRecCalories(recCalories);
+        goal.setRecCarbs(recCarbs);
+        goal.setRecProtein(recProtein);
+        goal.setRecFat(recFat);
+        return goal;
+    }
+}
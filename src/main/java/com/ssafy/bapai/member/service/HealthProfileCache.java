@@ -0,0 +1,114 @@
+package com.ssafy.bapai.member.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ssafy.bapai.member.dto.HealthProfileSnapshot;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 사용자별 HealthProfileSnapshot 2단 캐시
+ * - 1차: 로컬(Caffeine, 짧은 TTL -> 다른 노드에서 무효화돼도 곧 만료), 2차: Redis(TTL)
+ * - 다른 서비스에 의존하지 않음 -> MemberServiceImpl 이 순환 참조 없이 evict 호출 가능
+ */
+@Slf4j
+@Component
+public class HealthProfileCache {
+
+    private static final String KEY_PREFIX = "member:health-profile:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final Cache<Long, HealthProfileSnapshot> localCache;
+    private final Duration ttl;
+
+    public HealthProfileCache(StringRedisTemplate redisTemplate,
+                              ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.ai.cache.health-profile.ttl-hours:24}") long ttlHours,
+                              @Value("${app.ai.cache.health-profile.local-size:10000}") long localSize,
+                              @Value("${app.ai.cache.health-profile.local-ttl-seconds:60}")
+                              long localTtlSeconds) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.localCache = Caffeine.newBuilder()
+                .maximumSize(localSize)
+                .expireAfterWrite(Duration.ofSeconds(localTtlSeconds))
+                .build();
+    }
+
+    public HealthProfileSnapshot get(Long userId) {
+        HealthProfileSnapshot local = localCache.getIfPresent(userId);
+        if (local != null) {
+            count("hit", "local");
+            return local;
+        }
+
+        try {
+            String json = redisTemplate.opsForValue().get(KEY_PREFIX + userId);
+            if (json != null) {
+                HealthProfileSnapshot remote = objectMapper.readValue(json, HealthProfileSnapshot.class);
+                localCache.put(userId, remote);
+                count("hit", "redis");
+                return remote;
+            }
+        } catch (Exception e) {
+            log.warn("Health profile cache read failed. userId={}, err={}", userId, e.getMessage());
+        }
+
+        count("miss", "none");
+        return null;
+    }
+
+    public void put(HealthProfileSnapshot snapshot) {
+        localCache.put(snapshot.userId(), snapshot);
+        try {
+            redisTemplate.opsForValue().set(KEY_PREFIX + snapshot.userId(),
+                    objectMapper.writeValueAsString(snapshot), ttl);
+        } catch (Exception e) {
+            log.warn("Health profile cache write failed. userId={}, err={}",
+                    snapshot.userId(), e.getMessage());
+        }
+    }
+
+    /**
+     * 회원 정보 변경 시 무효화.
+     * 트랜잭션 안이면 커밋 후에 지움 (커밋 전 다른 요청이 옛 값으로 다시 채우는 것 방지)
+     */
+    public void evict(Long userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictNow(userId);
+                }
+            });
+        } else {
+            evictNow(userId);
+        }
+    }
+
+    private void evictNow(Long userId) {
+        localCache.invalidate(userId);
+        try {
+            redisTemplate.delete(KEY_PREFIX + userId);
+        } catch (Exception e) {
+            log.warn("Health profile cache evict failed. userId={}, err={}", userId, e.getMessage());
+        }
+    }
+
+    private void count(String result, String layer) {
+        meterRegistry.counter("ai.cache.requests",
+                "cache", "health-profile", "result", result, "layer", layer).increment();
+    }
+}
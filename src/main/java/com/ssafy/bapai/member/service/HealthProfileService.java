@@ -0,0 +1,79 @@
+package com.ssafy.bapai.member.service;
+
+import com.ssafy.bapai.member.dto.HealthProfileSnapshot;
+import com.ssafy.bapai.member.dto.MemberDto;
+import com.ssafy.bapai.member.dto.MemberGoalDto;
+import java.time.LocalDate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+/**
+ * AI 프롬프트 빌더들이 공통으로 쓰는 건강 프로필 조회
+ * - 캐시 미스 시에만 회원/질환/알레르기 조회 + 권장량 계산 + 이름 조회 (DB 4~6회)
+ */
+@Service
+@RequiredArgsConstructor
+public class HealthProfileService {
+
+    private final MemberService memberService;
+    private final HealthService healthService;
+    private final OptionService optionService;
+    private final HealthProfileCache healthProfileCache;
+
+    public HealthProfileSnapshot getSnapshot(Long userId) {
+        HealthProfileSnapshot cached = healthProfileCache.get(userId);
+        if (cached != null) {
+            return cached;
+        }
+
+        MemberDto member = memberService.getMember(userId);
+        if (member == null) {
+            throw new IllegalArgumentException("존재하지 않는 회원입니다.");
+        }
+        MemberGoalDto goal = healthService.calculateHealthMetrics(member);
+
+        HealthProfileSnapshot snapshot = new HealthProfileSnapshot(
+                userId,
+                (member.getBirthYear() == null) ? 0 : LocalDate.now().getYear() - member.getBirthYear(),
+                "M".equalsIgnoreCase(member.getGender()) ? "남성" : "여성",
+                (member.getHeight() == null) ? 0 : (int) Math.round(member.getHeight()),
+                (member.getWeight() == null) ? 0 : (int) Math.round(member.getWeight()),
+                activityLevelKor(member.getActivityLevel()),
+                goal.getDietGoal(),
+                dietGoalKor(goal.getDietGoal()),
+                optionService.diseaseNames(member.getDiseaseIds()),
+                optionService.allergyNames(member.getAllergyIds()),
+                goal.getTdee(),
+                goal.getRecCalories(),
+                goal.getRecCarbs(),
+                goal.getRecProtein(),
+                goal.getRecFat()
+        );
+        healthProfileCache.put(snapshot);
+        return snapshot;
+    }
+
+    // 한글 변환 예시 메서드 (실 프로젝트 용어에 맞게)
+    private String activityLevelKor(String level) {
+        if ("LOW".equals(level)) {
+            return "낮음";
+        }
+        if ("NORMAL".equals(level)) {
+            return "보통";
+        }
+        if ("HIGH".equals(level)) {
+            return "높음";
+        }
+        return "미상";
+    }
+
+    private String dietGoalKor(String goal) {
+        if ("LOSS".equals(goal)) {
+            return "감량";
+        }
+        if ("GAIN".equals(goal)) {
+            return "증량";
+        }
+        return "유지";
+    }
+}
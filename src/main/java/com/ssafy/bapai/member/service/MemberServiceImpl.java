@@ -26,6 +26,7 @@ public class MemberServiceImpl implements MemberService {
     private final HealthDao healthDao;
     private final RefreshTokenRepository refreshTokenRepository;
     private final StringRedisTemplate redisTemplate;
+    private final HealthProfileCache healthProfileCache;
 
     // 1. 회원가입
     @Override
@@ -138,6 +139,9 @@ public class MemberServiceImpl implements MemberService {
 
         // 4. (선택) TDEE 재계산 로직이 있다면 여기에 추가
         // 추후에 추가 예정
+
+        // 5. AI 프롬프트용 건강 프로필 캐시 무효화 (커밋 후)
+        healthProfileCache.evict(userId);
     }
 
 
@@ -173,12 +177,14 @@ public class MemberServiceImpl implements MemberService {
             throw new IllegalArgumentException("현재 사용 중인 비밀번호입니다.");
         }
         memberDao.updatePassword(userId, passwordEncoder.encode(newPassword));
+        healthProfileCache.evict(userId);
     }
 
     @Override
     @Transactional
     public void withdraw(Long userId) {
         memberDao.deleteMember(userId);
+        healthProfileCache.evict(userId);
     }
 
     @Override
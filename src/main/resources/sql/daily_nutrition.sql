@@ -0,0 +1,18 @@
+-- 사용자별 일별 영양 집계 (diet + diet_detail 의 파생 테이블)
+-- DietServiceImpl 의 식단 저장/수정/삭제 트랜잭션 안에서 해당 (user_id, eat_date) 행만 다시 계산
+-- 기존 데이터 채우기: --app.diet.rollup.rebuild-on-startup=true 로 1회 기동 (DailyNutritionRollup 이 이 플래그를 읽어 백필)
+CREATE TABLE IF NOT EXISTS daily_nutrition
+(
+    user_id       BIGINT       NOT NULL,
+    eat_date      DATE         NOT NULL,
+    meal_count    INT          NOT NULL DEFAULT 0,
+    snack_count   INT          NOT NULL DEFAULT 0,
+    total_kcal    DOUBLE       NOT NULL DEFAULT 0,
+    total_carbs   DOUBLE       NOT NULL DEFAULT 0,
+    total_protein DOUBLE       NOT NULL DEFAULT 0,
+    total_fat     DOUBLE       NOT NULL DEFAULT 0,
+    score_sum     INT          NOT NULL DEFAULT 0,
+    score_count   INT          NOT NULL DEFAULT 0,
+    updated_at    DATETIME     NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    PRIMARY KEY (user_id, eat_date)
+);
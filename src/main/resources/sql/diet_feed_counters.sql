@@ -0,0 +1,47 @@
+-- 피드 좋아요/댓글 수 비정규화 (기존: 행마다 diet_likes / comments COUNT(*) 서브쿼리)
+-- diet_likes, comments 는 이 서비스 밖에서도 쓰이므로 트리거로 같은 트랜잭션 안에서 카운터 유지
+
+ALTER TABLE diet
+    ADD COLUMN like_count    INT NOT NULL DEFAULT 0,
+    ADD COLUMN comment_count INT NOT NULL DEFAULT 0;
+
+-- 정렬 + keyset 페이지용 (InnoDB 보조 인덱스는 PK(diet_id)를 포함 -> (count, diet_id) 순서로 정렬됨)
+CREATE INDEX idx_diet_like_count ON diet (like_count);
+CREATE INDEX idx_diet_comment_count ON diet (comment_count);
+
+-- 기존 데이터 백필
+UPDATE diet d
+SET d.like_count    = (SELECT COUNT(*) FROM diet_likes dl WHERE dl.diet_id = d.diet_id),
+    d.comment_count = (SELECT COUNT(*) FROM comments c WHERE c.diet_id = d.diet_id);
+
+DELIMITER //
+
+CREATE TRIGGER trg_diet_likes_after_insert
+    AFTER INSERT ON diet_likes
+    FOR EACH ROW
+BEGIN
+    UPDATE diet SET like_count = like_count + 1 WHERE diet_id = NEW.diet_id;
+END //
+
+CREATE TRIGGER trg_diet_likes_after_delete
+    AFTER DELETE ON diet_likes
+    FOR EACH ROW
+BEGIN
+    UPDATE diet SET like_count = GREATEST(like_count - 1, 0) WHERE diet_id = OLD.diet_id;
+END //
+
+CREATE TRIGGER trg_comments_after_insert
+    AFTER INSERT ON comments
+    FOR EACH ROW
+BEGIN
+    UPDATE diet SET comment_count = comment_count + 1 WHERE diet_id = NEW.diet_id;
+END //
+
+CREATE TRIGGER trg_comments_after_delete
+    AFTER DELETE ON comments
+    FOR EACH ROW
+BEGIN
+    UPDATE diet SET comment_count = GREATEST(comment_count - 1, 0) WHERE diet_id = OLD.diet_id;
+END //
+
+DELIMITER ;
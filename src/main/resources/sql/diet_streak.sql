@@ -0,0 +1,11 @@
+-- 사용자별 연속 기록(스트릭) 상태 (diet 의 파생 테이블)
+-- 식단 저장 시 증분 갱신, 과거 날짜 추가/날짜 삭제 시에는 diet 기준으로 재계산 (DietStreakTracker)
+-- 행이 없는 사용자는 첫 조회 때 재계산으로 채워지므로 별도 백필 불필요
+CREATE TABLE IF NOT EXISTS diet_streak
+(
+    user_id        BIGINT   NOT NULL PRIMARY KEY,
+    current_streak INT      NOT NULL DEFAULT 0, -- last_date 로 끝나는 연속 일수
+    longest_streak INT      NOT NULL DEFAULT 0,
+    last_date      DATE     NOT NULL,           -- 가장 최근 기록 날짜
+    updated_at     DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+);
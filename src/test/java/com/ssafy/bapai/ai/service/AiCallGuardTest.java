@@ -0,0 +1,117 @@
+package com.ssafy.bapai.ai.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import com.sun.net.httpserver.HttpServer;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.openai.OpenAiChatModel;
+import org.springframework.ai.openai.OpenAiChatOptions;
+import org.springframework.ai.openai.api.OpenAiApi;
+
+// 로컬 스텁 HTTP 서버(OpenAI 호환 엔드포인트 흉내)를 대상으로 Circuit Breaker/타임아웃 검증
+class AiCallGuardTest {
+
+    private HttpServer server;
+    private final AtomicInteger hits = new AtomicInteger();
+    private volatile int status = 200;
+    private volatile long delayMs = 0;
+
+    private AiCallGuard guard;
+    private ChatModel chatModel;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            hits.incrementAndGet();
+            try {
+                Thread.sleep(delayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = (status == 200 ? completionJson() : "{\"error\":{\"message\":\"bad\"}}")
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(body);
+            }
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+
+        OpenAiApi api = OpenAiApi.builder()
+                .baseUrl("http://127.0.0.1:" + server.getAddress().getPort())
+                .apiKey("test-key")
+                .build();
+        chatModel = new OpenAiChatModel(api, OpenAiChatOptions.builder().model("gpt-4o").build());
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AiBulkhead bulkhead = new AiBulkhead(registry, 4, 4, 100, 4, 4, 100);
+        // 윈도우 10, 최소 5회, OPEN 유지 60초, 타임아웃은 표본 부족으로 항상 max(300ms)
+        guard = new AiCallGuard(bulkhead, registry, 50f, 80f, 30_000, 10, 5, 60,
+                100, 300, 2.0, 1_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        guard.shutdown();
+    }
+
+    @Test
+    void opensOnErrorsAndThenFailsFastWithoutCallingUpstream() {
+        status = 400;
+        for (int i = 0; i < 5; i++) {
+            assertThrows(RuntimeException.class,
+                    () -> guard.call("dailyReport", AiModel.REPORT, () -> chatModel.call("hi")));
+        }
+        assertEquals(CircuitBreaker.State.OPEN, guard.stateOf(AiModel.REPORT));
+
+        int before = hits.get();
+        assertThrows(AiCallRejectedException.class,
+                () -> guard.call("dailyReport", AiModel.REPORT, () -> chatModel.call("hi")));
+        assertEquals(before, hits.get());
+
+        // 다른 모델의 회로는 영향 없음
+        assertEquals(CircuitBreaker.State.CLOSED, guard.stateOf(AiModel.VISION));
+    }
+
+    @Test
+    void timesOutSlowUpstreamWithinPurposeTimeout() {
+        delayMs = 2_000;
+        assertTimeoutPreemptively(Duration.ofSeconds(1), () ->
+                assertThrows(AiCallTimeoutException.class,
+                        () -> guard.call("analyzeFood", AiModel.VISION,
+                                () -> chatModel.call("hi"))));
+    }
+
+    @Test
+    void returnsUpstreamContentWhenHealthy() {
+        String content = guard.call("gapAnalysis", AiModel.REPORT, () -> chatModel.call("hi"));
+        assertEquals("ok", content);
+    }
+
+    private static String completionJson() {
+        return """
+                {"id":"chatcmpl-1","object":"chat.completion","created":1,"model":"gpt-4o",
+                 "choices":[{"index":0,"message":{"role":"assistant","content":"ok"},
+                             "finish_reason":"stop"}],
+                 "usage":{"prompt_tokens":1,"completion_tokens":1,"total_tokens":2}}
+                """;
+    }
+}
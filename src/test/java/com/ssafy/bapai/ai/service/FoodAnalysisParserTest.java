@@ -0,0 +1,52 @@
+package com.ssafy.bapai.ai.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ssafy.bapai.ai.dto.FoodAnalysisResult;
+import java.io.IOException;
+import org.junit.jupiter.api.Test;
+
+// LLM 응답 모양(펜스/앞뒤 잡담/단일 음식/foodList/items) 별 파싱 검증
+class FoodAnalysisParserTest {
+
+    private final FoodAnalysisParser parser = new FoodAnalysisParser(new ObjectMapper());
+
+    @Test
+    void parsesFencedJsonWithSurroundingProse() throws IOException {
+        String raw = """
+                분석 결과입니다.
+                ```json
+                {"foodName":"김치찌개","kcal":450,"carbs":20.5,"protein":15.0,"fat":10.2,"score":85,"aiAnalysis":"나트륨 주의"}
+                ```
+                참고하세요 {끝}""";
+
+        FoodAnalysisResult result = parser.parse(raw);
+
+        assertEquals("김치찌개", result.foodName());
+        assertEquals(450.0, result.kcal());
+        assertEquals(85, result.score());
+        assertEquals(1, result.items().size());
+        assertEquals("김치찌개", result.items().get(0).foodName());
+    }
+
+    @Test
+    void parsesMultiItemShapes() throws IOException {
+        FoodAnalysisResult foodList = parser.parse("""
+                {"foodList":[{"foodName":"밥","kcal":300,"amount":210},{"foodName":"김치","kcal":20}],"aiAnalysis":"균형"}""");
+        FoodAnalysisResult items = parser.parse("""
+                {"items":[{"foodName":"밥","kcal":300}],"unknownField":true}""");
+
+        assertEquals(2, foodList.items().size());
+        assertEquals(210, foodList.items().get(0).amount());
+        assertEquals("밥", items.items().get(0).foodName());
+    }
+
+    @Test
+    void rejectsResponseWithoutJsonObject() {
+        assertThrows(IOException.class, () -> parser.parse("죄송합니다. 분석할 수 없습니다."));
+        assertTrue(FoodAnalysisResult.fallback().failed());
+    }
+}
@@ -0,0 +1,100 @@
+package com.ssafy.bapai.ai.service;
+
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import javax.imageio.ImageIO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 기존(전체 디코딩 후 리사이즈) vs FoodImageCompressor(서브샘플링 디코딩) 비교
+ * - 두 벤치마크 모두 디코딩 -> 512px 리사이즈 -> JPEG 인코딩만 수행 (dHash 제외)
+ * - 할당량 비교: main 실행 시 GC 프로파일러(-prof gc) 포함 -> gc.alloc.rate.norm 확인
+ * - 실행: mvn test-compile 후 IDE 에서 main 실행 (JUnit 테스트 아님)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FoodImageCompressorBenchmark {
+
+    @Param({"1600x1200", "4000x3000"})
+    public String size;
+
+    private byte[] photo;
+    private FoodImageCompressor compressor;
+
+    @Setup
+    public void setUp() throws IOException {
+        String[] wh = size.split("x");
+        int width = Integer.parseInt(wh[0]);
+        int height = Integer.parseInt(wh[1]);
+
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setPaint(new GradientPaint(0, 0, Color.ORANGE, width, height, Color.DARK_GRAY));
+        g.fillRect(0, 0, width, height);
+        g.setColor(Color.WHITE);
+        g.fillOval(width / 4, height / 4, width / 2, height / 2);
+        g.dispose();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpg", out);
+        photo = out.toByteArray();
+        compressor = new FoodImageCompressor(0.85f);
+    }
+
+    @Benchmark
+    public byte[] legacyFullDecode() throws IOException {
+        BufferedImage original = ImageIO.read(new ByteArrayInputStream(photo));
+        int targetWidth = Math.min(FoodImageCompressor.TARGET_WIDTH, original.getWidth());
+        int targetHeight = (int) ((double) targetWidth / original.getWidth() * original.getHeight());
+
+        BufferedImage resized = new BufferedImage(targetWidth, targetHeight, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = resized.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+                RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.drawImage(original, 0, 0, targetWidth, targetHeight, null);
+        g.dispose();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(resized, "jpg", out);
+        return out.toByteArray();
+    }
+
+    // compress() 는 dHash 까지 계산하므로 legacy 와 같은 작업(디코딩 + 리사이즈 + 인코딩)만 비교
+    @Benchmark
+    public byte[] subsampledDecode() throws IOException {
+        BufferedImage decoded = compressor.decodeSubsampled(photo, FoodImageCompressor.TARGET_WIDTH);
+        BufferedImage resized = compressor.resize(decoded, FoodImageCompressor.TARGET_WIDTH);
+        return compressor.encodeJpeg(resized);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(FoodImageCompressorBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+}
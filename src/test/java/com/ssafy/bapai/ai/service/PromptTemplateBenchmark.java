@@ -0,0 +1,109 @@
+package com.ssafy.bapai.ai.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 일간 리포트 프롬프트 생성 비교
+ * - legacy: String.format + 메뉴명/전체 프롬프트에 replaceAll 4회씩 (매번 정규식 컴파일)
+ * - template: 미리 파싱한 PromptTemplate + 메뉴명에만 PromptSanitizer 1회 스캔
+ * - 실행: mvn test-compile 후 IDE 에서 main 실행 (JUnit 테스트 아님), -prof gc 로 할당량도 확인
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PromptTemplateBenchmark {
+
+    @Param({"3", "20"})
+    public int meals;
+
+    private String[] menus;
+    private double[] kcals;
+    private PromptTemplateEngine engine;
+
+    @Setup
+    public void setUp() throws IOException {
+        menus = new String[meals];
+        kcals = new double[meals];
+        for (int i = 0; i < meals; i++) {
+            menus[i] = "닭가슴살 샐러드와 현미밥 " + i + "\t(드레싱 적게)";
+            kcals[i] = 350 + i * 17.5;
+        }
+        engine = new PromptTemplateEngine(new SimpleMeterRegistry(), "v1", "");
+    }
+
+    @Benchmark
+    public String legacyFormatAndSanitize() {
+        StringBuilder sb = new StringBuilder("오늘 먹은 식사 내역:\n");
+        double totalKcal = 0;
+        for (int i = 0; i < meals; i++) {
+            sb.append("- ").append(legacySanitize(menus[i])).append(" (")
+                    .append((int) Math.round(kcals[i])).append("kcal)\n");
+            totalKcal += kcals[i];
+        }
+        String prompt = String.format(
+                "내 신체정보는 %d세 %s(키 %dcm, 몸무게 %dkg), 활동량 %s, 목표: %s, 질환: %s, 알레르기: %s.\n" +
+                        "1일 권장 섭취: %d kcal (탄수 %d g, 단백 %d g, 지방 %d g).\n\n" +
+                        "%s\n" +
+                        "총 섭취 칼로리: %d kcal.\n" +
+                        "오늘 내 식단을 건강/균형/질병 및 알레르기 관점에서 분석해서, 부족 or 과한 영양소와 유의사항, 건강 개선 TIP을 각각 한 문장씩(총 3문장) 조언해줘. (의학/영양사 관점으로 현실적으로.)",
+                31, "남성", 178, 74, "보통", "체중 감량", "없음", "땅콩",
+                2200L, 275L, 110L, 73L, sb, (int) Math.round(totalKcal));
+        return legacySanitize(prompt);
+    }
+
+    @Benchmark
+    public String template() {
+        StringBuilder sb = new StringBuilder("오늘 먹은 식사 내역:\n");
+        double totalKcal = 0;
+        for (int i = 0; i < meals; i++) {
+            sb.append("- ").append(PromptSanitizer.sanitize(menus[i])).append(" (")
+                    .append((int) Math.round(kcals[i])).append("kcal)\n");
+            totalKcal += kcals[i];
+        }
+        return engine.get("daily-report", 1L).with()
+                .put("age", 31).put("gender", "남성").put("height", 178).put("weight", 74)
+                .put("activity", "보통").put("goal", "체중 감량").put("disease", "없음")
+                .put("allergy", "땅콩").put("recKcal", 2200L).put("recCarbs", 275L)
+                .put("recProtein", 110L).put("recFat", 73L)
+                .put("meals", sb).put("totalKcal", (int) Math.round(totalKcal))
+                .render();
+    }
+
+    // 변경 전 AiService.sanitizeForPrompt
+    private static String legacySanitize(String input) {
+        String s = input.replaceAll("\\p{Cntrl}", " ").trim();
+        if (s.length() > 800) {
+            s = s.substring(0, 800) + "...";
+        }
+        s = s.replaceAll("(?i)ignore (all|previous) instructions", "[filtered]");
+        s = s.replaceAll("(?i)system prompt", "[filtered]");
+        s = s.replaceAll("(?i)developer message", "[filtered]");
+        return s;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PromptTemplateBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+}
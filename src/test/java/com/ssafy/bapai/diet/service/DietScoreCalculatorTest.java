@@ -0,0 +1,66 @@
+package com.ssafy.bapai.diet.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.ssafy.bapai.diet.dto.DietDto;
+import com.ssafy.bapai.member.dto.MemberGoalDto;
+import org.junit.jupiter.api.Test;
+
+// 목표(LOSS/GAIN/MAINTAIN)별 가중치/허용폭 검증. 일일 권장량 1800kcal -> 한 끼 600kcal/75g/30g/20g
+class DietScoreCalculatorTest {
+
+    private final DietScoreCalculator calculator = new DietScoreCalculator();
+
+    @Test
+    void onTargetMealScoresFullForEveryGoal() {
+        DietDto meal = meal(600, 75, 30, 20);
+
+        assertEquals(100, calculator.score(goal("LOSS"), meal));
+        assertEquals(100, calculator.score(goal("GAIN"), meal));
+        assertEquals(100, calculator.score(goal("MAINTAIN"), meal));
+    }
+
+    @Test
+    void excessCaloriesArePenalizedHardestForLoss() {
+        DietDto meal = meal(900, 75, 30, 20); // 칼로리만 150%
+
+        assertEquals(60, calculator.score(goal("LOSS"), meal));
+        assertEquals(75, calculator.score(goal("MAINTAIN"), meal));
+        assertEquals(78, calculator.score(goal("GAIN"), meal));
+    }
+
+    @Test
+    void missingProteinIsPenalizedHarderForLossAndGainThanMaintain() {
+        DietDto meal = meal(600, 75, 15, 20); // 단백질만 50%
+
+        assertEquals(70, calculator.score(goal("LOSS"), meal));
+        assertEquals(70, calculator.score(goal("GAIN"), meal));
+        assertEquals(83, calculator.score(goal("MAINTAIN"), meal));
+    }
+
+    @Test
+    void unknownGoalFallsBackToMaintain() {
+        DietDto meal = meal(900, 75, 30, 20);
+
+        assertEquals(calculator.score(goal("MAINTAIN"), meal), calculator.score(goal(null), meal));
+    }
+
+    private static MemberGoalDto goal(String dietGoal) {
+        MemberGoalDto goal = new MemberGoalDto();
+        goal.setDietGoal(dietGoal);
+        goal.setRecCalories(1800);
+        goal.setRecCarbs(225);
+        goal.setRecProtein(90);
+        goal.setRecFat(60);
+        return goal;
+    }
+
+    private static DietDto meal(double kcal, double carbs, double protein, double fat) {
+        DietDto diet = new DietDto();
+        diet.setTotalKcal(kcal);
+        diet.setTotalCarbs(carbs);
+        diet.setTotalProtein(protein);
+        diet.setTotalFat(fat);
+        return diet;
+    }
+}
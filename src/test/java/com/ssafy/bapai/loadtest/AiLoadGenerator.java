@@ -0,0 +1,236 @@
+package com.ssafy.bapai.loadtest;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.imageio.ImageIO;
+
+/**
+ * AI 엔드포인트 부하 생성기 (analyze / report / recommend 혼합 트래픽)
+ * - 서버는 loadtest 프로필로 실행 (LoadTestChatModel -> 토큰 과금 없음)
+ * - 실행: mvn test-compile 후 IDE 에서 main 실행 (JUnit 테스트 아님). 설정은 -D 시스템 프로퍼티
+ *   -DbaseUrl=http://localhost:8080 -Dtokens=토큰1,토큰2 -Dusers=32 -DdurationSeconds=60 -DwarmupSeconds=10
+ *   -Dmix=analyze:4,recommend:3,challenges:1,weekly:1,monthly:1
+ * - 결과: 시나리오별 요청 수, 오류 수, 처리량(req/s), p50/p95/p99 (ms)
+ * - 리포트/분석은 DB·Redis 캐시가 있으므로 업스트림 부하를 보려면 tokens 에 여러 사용자를 넣을 것
+ */
+public class AiLoadGenerator {
+
+    private static final String[] FOOD_HINTS = {"김치찌개", "비빔밥", "닭가슴살 샐러드", "제육볶음", "된장찌개", "연어덮밥"};
+    private static final String[] KEYWORDS = {"다이어트", "근력", "수분", "채식", "저염", "아침식사"};
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final String baseUrl;
+    private final List<String> tokens;
+    private final Duration requestTimeout;
+
+    public AiLoadGenerator(String baseUrl, List<String> tokens, Duration requestTimeout) {
+        this.baseUrl = baseUrl;
+        this.tokens = tokens;
+        this.requestTimeout = requestTimeout;
+    }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = System.getProperty("baseUrl", "http://localhost:8080");
+        List<String> tokens = Arrays.asList(System.getProperty("tokens", "").split(","));
+        int users = Integer.getInteger("users", 32);
+        int durationSeconds = Integer.getInteger("durationSeconds", 60);
+        int warmupSeconds = Integer.getInteger("warmupSeconds", 10);
+        String mix = System.getProperty("mix", "analyze:4,recommend:3,challenges:1,weekly:1,monthly:1");
+
+        AiLoadGenerator generator = new AiLoadGenerator(baseUrl, tokens, Duration.ofSeconds(150));
+        List<String> scenarios = weightedScenarios(mix);
+
+        System.out.printf("Warm-up %ds (users=%d)%n", warmupSeconds, users);
+        generator.run(scenarios, users, warmupSeconds);
+
+        System.out.printf("Measuring %ds (users=%d, mix=%s)%n", durationSeconds, users, mix);
+        Map<String, Stats> result = generator.run(scenarios, users, durationSeconds);
+        print(result, durationSeconds);
+    }
+
+    // 닫힌 모델: users 개의 가상 사용자가 응답을 받는 즉시 다음 요청을 보냄
+    public Map<String, Stats> run(List<String> scenarios, int users, int seconds)
+            throws InterruptedException {
+        Map<String, Stats> stats = new LinkedHashMap<>();
+        for (String scenario : scenarios) {
+            stats.putIfAbsent(scenario, new Stats());
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        ExecutorService pool = Executors.newFixedThreadPool(users);
+        for (int u = 0; u < users; u++) {
+            String token = tokens.get(u % tokens.size());
+            pool.execute(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < deadline && !Thread.currentThread().isInterrupted()) {
+                    String scenario = scenarios.get(random.nextInt(scenarios.size()));
+                    long start = System.nanoTime();
+                    boolean ok;
+                    try {
+                        ok = send(scenario, token) < 400;
+                    } catch (IOException e) {
+                        ok = false;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    stats.get(scenario).record(System.nanoTime() - start, ok);
+                }
+            });
+        }
+        pool.shutdown();
+        if (!pool.awaitTermination(seconds + requestTimeout.toSeconds(), TimeUnit.SECONDS)) {
+            pool.shutdownNow();
+        }
+        return stats;
+    }
+
+    private int send(String scenario, String token) throws IOException, InterruptedException {
+        HttpRequest request = switch (scenario) {
+            case "analyze" -> analyzeRequest();
+            case "recommend" -> get("/api/ai/recommend", token);
+            case "challenges" -> get("/api/ai/challenges/recommend?keywords="
+                    + URLEncoder.encode(pick(KEYWORDS), StandardCharsets.UTF_8), token);
+            case "weekly" -> get("/api/ai/report/weekly", token);
+            case "monthly" -> get("/api/ai/report/monthly", token);
+            default -> throw new IllegalArgumentException("unknown scenario: " + scenario);
+        };
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private HttpRequest get(String path, String token) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(requestTimeout)
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+    }
+
+    // multipart/form-data: 임의 색상 사진(캐시 적중 방지) + 음식명 힌트
+    private HttpRequest analyzeRequest() throws IOException {
+        String boundary = "----bapai-" + UUID.randomUUID();
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        String hint = pick(FOOD_HINTS);
+
+        body.write(("--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"foodName\"\r\n\r\n"
+                + hint + "\r\n").getBytes(StandardCharsets.UTF_8));
+        body.write(("--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"image\"; filename=\"food.jpg\"\r\n"
+                + "Content-Type: image/jpeg\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+        body.write(randomPhoto());
+        body.write(("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8));
+
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/api/ai/analyze"))
+                .timeout(requestTimeout)
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()))
+                .build();
+    }
+
+    private static byte[] randomPhoto() throws IOException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        BufferedImage image = new BufferedImage(1600, 1200, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        for (int i = 0; i < 12; i++) {
+            g.setColor(new Color(random.nextInt(0x1000000)));
+            g.fillOval(random.nextInt(1600), random.nextInt(1200), 200 + random.nextInt(600),
+                    200 + random.nextInt(600));
+        }
+        g.dispose();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpg", out);
+        return out.toByteArray();
+    }
+
+    private static String pick(String[] values) {
+        return values[ThreadLocalRandom.current().nextInt(values.length)];
+    }
+
+    // "analyze:4,recommend:3" -> 가중치만큼 반복한 목록 (균등 추출로 비율 유지)
+    static List<String> weightedScenarios(String mix) {
+        List<String> scenarios = new ArrayList<>();
+        for (String entry : mix.split(",")) {
+            String[] kv = entry.trim().split(":");
+            int weight = (kv.length > 1) ? Integer.parseInt(kv[1]) : 1;
+            for (int i = 0; i < weight; i++) {
+                scenarios.add(kv[0]);
+            }
+        }
+        return scenarios;
+    }
+
+    private static void print(Map<String, Stats> result, int seconds) {
+        System.out.printf("%-12s %8s %7s %9s %9s %9s %9s%n",
+                "scenario", "count", "errors", "req/s", "p50(ms)", "p95(ms)", "p99(ms)");
+        Stats all = new Stats();
+        result.forEach((name, s) -> {
+            printRow(name, s, seconds);
+            all.merge(s);
+        });
+        printRow("TOTAL", all, seconds);
+    }
+
+    private static void printRow(String name, Stats s, int seconds) {
+        long[] sorted = s.sortedMillis();
+        System.out.printf("%-12s %8d %7d %9.1f %9d %9d %9d%n", name, sorted.length, s.errors.get(),
+                sorted.length / (double) seconds,
+                percentile(sorted, 50), percentile(sorted, 95), percentile(sorted, 99));
+    }
+
+    // nearest-rank 방식
+    static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(p / 100.0 * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+    }
+
+    static final class Stats {
+        private final List<Long> nanos = new ArrayList<>();
+        private final AtomicLong errors = new AtomicLong();
+
+        synchronized void record(long elapsedNanos, boolean ok) {
+            nanos.add(elapsedNanos);
+            if (!ok) {
+                errors.incrementAndGet();
+            }
+        }
+
+        synchronized void merge(Stats other) {
+            synchronized (other) {
+                nanos.addAll(other.nanos);
+                errors.addAndGet(other.errors.get());
+            }
+        }
+
+        synchronized long[] sortedMillis() {
+            return nanos.stream().mapToLong(TimeUnit.NANOSECONDS::toMillis).sorted().toArray();
+        }
+    }
+}